@@ -0,0 +1,156 @@
+package com.yuri.store.benchmark;
+
+import com.yuri.store.entities.Category;
+import com.yuri.store.entities.Product;
+import com.yuri.store.entities.User;
+import com.yuri.store.repositories.CategoryRepository;
+import com.yuri.store.services.CategoryRegistry;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic fixtures shared by the benchmarks, so runs on different commits see the same data.
+ */
+final class BenchmarkData {
+    private static final long SEED = 42;
+    private static final int CATEGORIES = 20;
+
+    private BenchmarkData() {
+    }
+
+    static List<Category> categories() {
+        var categories = new ArrayList<Category>(CATEGORIES);
+        for (int i = 1; i <= CATEGORIES; i++) {
+            var category = new Category("Categoria " + i);
+            category.setId((byte) i);
+            categories.add(category);
+        }
+        return categories;
+    }
+
+    /**
+     * A registry loaded with {@link #categories()}, as it is after startup.
+     */
+    static CategoryRegistry categoryRegistry() {
+        var repository = new InMemoryCategoryRepository();
+        repository.saveAll(categories());
+        var registry = new CategoryRegistry(repository);
+        registry.refresh();
+        return registry;
+    }
+
+    static List<Product> products(int count) {
+        var random = new SplittableRandom(SEED);
+        var categories = categories();
+        var products = new ArrayList<Product>(count);
+        for (int i = 0; i < count; i++) {
+            products.add(Product.builder()
+                    .id((long) i + 1)
+                    .name("Produto " + i)
+                    .description("Descrição do produto de teste número " + i)
+                    .price(price(random))
+                    .category(categories.get(random.nextInt(categories.size())))
+                    .version(0L)
+                    .build());
+        }
+        return products;
+    }
+
+    static List<User> users(int count) {
+        var users = new ArrayList<User>(count);
+        for (int i = 0; i < count; i++) {
+            var user = new User();
+            user.setId((long) i + 1);
+            user.setName("Usuário " + i);
+            user.setEmail("usuario" + i + "@test.com");
+            user.setPassword("senha123");
+            user.setVersion(0L);
+            users.add(user);
+        }
+        return users;
+    }
+
+    /**
+     * Prices with two decimal places between 1.00 and 9999.99, the shape the catalog stores.
+     */
+    static BigDecimal price(SplittableRandom random) {
+        return BigDecimal.valueOf(random.nextLong(100, 1_000_000), 2);
+    }
+
+    /**
+     * Map-backed repository, so the registry can be loaded without a database.
+     */
+    private static final class InMemoryCategoryRepository implements CategoryRepository {
+        private final Map<Byte, Category> categories = new LinkedHashMap<>();
+
+        @Override
+        public <S extends Category> S save(S category) {
+            categories.put(category.getId(), category);
+            return category;
+        }
+
+        @Override
+        public <S extends Category> Iterable<S> saveAll(Iterable<S> entities) {
+            entities.forEach(this::save);
+            return entities;
+        }
+
+        @Override
+        public Optional<Category> findById(Byte id) {
+            return Optional.ofNullable(categories.get(id));
+        }
+
+        @Override
+        public boolean existsById(Byte id) {
+            return categories.containsKey(id);
+        }
+
+        @Override
+        public Iterable<Category> findAll() {
+            return List.copyOf(categories.values());
+        }
+
+        @Override
+        public Iterable<Category> findAllById(Iterable<Byte> ids) {
+            var found = new ArrayList<Category>();
+            ids.forEach(id -> findById(id).ifPresent(found::add));
+            return found;
+        }
+
+        @Override
+        public long count() {
+            return categories.size();
+        }
+
+        @Override
+        public void deleteById(Byte id) {
+            categories.remove(id);
+        }
+
+        @Override
+        public void delete(Category category) {
+            categories.remove(category.getId());
+        }
+
+        @Override
+        public void deleteAllById(Iterable<? extends Byte> ids) {
+            ids.forEach(categories::remove);
+        }
+
+        @Override
+        public void deleteAll(Iterable<? extends Category> entities) {
+            entities.forEach(this::delete);
+        }
+
+        @Override
+        public void deleteAll() {
+            categories.clear();
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.yuri.store.benchmark;
+
+import com.yuri.store.StoreApplication;
+import com.yuri.store.dtos.ProductDto;
+import com.yuri.store.dtos.UserDto;
+import com.yuri.store.entities.Category;
+import com.yuri.store.entities.Product;
+import com.yuri.store.entities.User;
+import com.yuri.store.mappers.ProductMapper;
+import com.yuri.store.mappers.UserMapper;
+import com.yuri.store.pagination.ProductSort;
+import com.yuri.store.repositories.CategoryRepository;
+import com.yuri.store.repositories.ProductPageQuery;
+import com.yuri.store.repositories.ProductRepository;
+import com.yuri.store.repositories.UserRepository;
+import com.yuri.store.services.CategoryRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Sort;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full-entity listing (managed entities mapped through MapStruct, as GET /products and GET /users
+ * did before) against the read-only DTO projections, on the H2 test profile. Each invocation runs
+ * with its own EntityManager bound to the thread, like an open-in-view request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ListQueryBenchmark {
+    @Param({"500", "5000"})
+    private int size;
+
+    private ConfigurableApplicationContext context;
+    private EntityManagerFactory entityManagerFactory;
+    private TransactionTemplate transaction;
+    private ProductRepository productRepository;
+    private UserRepository userRepository;
+    private ProductMapper productMapper;
+    private UserMapper userMapper;
+    private CategoryRegistry categoryRegistry;
+    private EntityManager requestEntityManager;
+
+    @Setup(Level.Trial)
+    public void startApplication() {
+        context = new SpringApplicationBuilder(StoreApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                .properties(
+                        "spring.jpa.show-sql=false",
+                        "logging.level.root=WARN",
+                        "logging.level.org.hibernate.SQL=WARN",
+                        "logging.level.org.hibernate.orm.jdbc.bind=WARN",
+                        "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN")
+                .run();
+        entityManagerFactory = context.getBean(EntityManagerFactory.class);
+        transaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        productRepository = context.getBean(ProductRepository.class);
+        userRepository = context.getBean(UserRepository.class);
+        productMapper = context.getBean(ProductMapper.class);
+        userMapper = context.getBean(UserMapper.class);
+        categoryRegistry = context.getBean(CategoryRegistry.class);
+
+        var categoryRepository = context.getBean(CategoryRepository.class);
+        var categories = new ArrayList<Category>();
+        BenchmarkData.categories().forEach(category -> categories.add(categoryRepository.save(new Category(category.getName()))));
+        var products = BenchmarkData.products(size);
+        products.forEach(product -> {
+            product.setId(null);
+            product.setVersion(null);
+            product.setCategory(categories.get(product.getCategory().getId() - 1));
+        });
+        productRepository.saveAll(products);
+        var users = BenchmarkData.users(size);
+        users.forEach(user -> {
+            user.setId(null);
+            user.setVersion(null);
+        });
+        userRepository.saveAll(users);
+        categoryRegistry.refresh();
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+    }
+
+    @Setup(Level.Invocation)
+    public void openRequest() {
+        requestEntityManager = entityManagerFactory.createEntityManager();
+        TransactionSynchronizationManager.bindResource(entityManagerFactory, new EntityManagerHolder(requestEntityManager));
+    }
+
+    @TearDown(Level.Invocation)
+    public void closeRequest() {
+        TransactionSynchronizationManager.unbindResource(entityManagerFactory);
+        requestEntityManager.close();
+    }
+
+    @Benchmark
+    public List<ProductDto> productsAsEntities() {
+        return transaction.execute(status -> requestEntityManager
+                .createQuery("SELECT p FROM Product p LEFT JOIN FETCH p.category ORDER BY p.id", Product.class)
+                .setMaxResults(size)
+                .getResultList()
+                .stream()
+                .map(productMapper::toDto)
+                .toList());
+    }
+
+    @Benchmark
+    public List<ProductDto> productsAsProjection() {
+        var items = productRepository.findPage(ProductPageQuery.builder().sort(ProductSort.ID).limit(size).build());
+        items.forEach(item -> item.setCategory(categoryRegistry.findDto(item.getCategoryId())));
+        return items;
+    }
+
+    @Benchmark
+    public List<UserDto> usersAsEntities() {
+        return transaction.execute(status -> userRepository.findAll(Sort.by("name"))
+                .stream()
+                .map(userMapper::toDto)
+                .toList());
+    }
+
+    @Benchmark
+    public List<UserDto> usersAsProjection() {
+        return userRepository.findAllDtos(Sort.by("name"));
+    }
+}
@@ -0,0 +1,51 @@
+package com.yuri.store.benchmark;
+
+import com.yuri.store.dtos.ProductDto;
+import com.yuri.store.dtos.UserDto;
+import com.yuri.store.entities.Product;
+import com.yuri.store.entities.User;
+import com.yuri.store.mappers.ProductMapper;
+import com.yuri.store.mappers.ProductMapperImpl;
+import com.yuri.store.mappers.UserMapper;
+import com.yuri.store.mappers.UserMapperImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity to DTO mapping as done for every product page and user response.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MappingBenchmark {
+    @Param({"50", "1000"})
+    private int size;
+
+    private ProductMapper productMapper;
+    private UserMapper userMapper;
+    private List<Product> products;
+    private List<User> users;
+
+    @Setup
+    public void setUp() {
+        productMapper = new ProductMapperImpl(BenchmarkData.categoryRegistry());
+        userMapper = new UserMapperImpl();
+        products = BenchmarkData.products(size);
+        users = BenchmarkData.users(size);
+    }
+
+    @Benchmark
+    public List<ProductDto> productToDto() {
+        return products.stream().map(productMapper::toDto).toList();
+    }
+
+    @Benchmark
+    public List<UserDto> userToDto() {
+        return users.stream().map(userMapper::toDto).toList();
+    }
+}
@@ -0,0 +1,89 @@
+package com.yuri.store.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yuri.store.dtos.ProductDto;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BigDecimal price handling on the catalog hot paths: parsing request bodies, converting to the
+ * integer cents the facet index keys on, range comparisons and the cursor's string form.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PriceBenchmark {
+    private static final int PRICES = 1024;
+
+    private final BigDecimal[] prices = new BigDecimal[PRICES];
+    private final String[] texts = new String[PRICES];
+    private final String[] json = new String[PRICES];
+    private final BigDecimal min = new BigDecimal("50.00");
+    private final BigDecimal max = new BigDecimal("500.00");
+    private ObjectMapper objectMapper;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        var random = new SplittableRandom(42);
+        for (int i = 0; i < PRICES; i++) {
+            prices[i] = BenchmarkData.price(random);
+            texts[i] = prices[i].toPlainString();
+            json[i] = "{\"price\":" + texts[i] + "}";
+        }
+    }
+
+    @Benchmark
+    public void parse(Blackhole blackhole) {
+        for (var text : texts) {
+            blackhole.consume(new BigDecimal(text));
+        }
+    }
+
+    /**
+     * The conversion {@code ProductFacetIndex} applies to every indexed price and filter bound.
+     */
+    @Benchmark
+    public long toCents() {
+        long sum = 0;
+        for (var price : prices) {
+            sum += price.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int rangeCompare() {
+        int matches = 0;
+        for (var price : prices) {
+            if (price.compareTo(min) >= 0 && price.compareTo(max) <= 0) {
+                matches++;
+            }
+        }
+        return matches;
+    }
+
+    @Benchmark
+    public void toPlainString(Blackhole blackhole) {
+        for (var price : prices) {
+            blackhole.consume(price.toPlainString());
+        }
+    }
+
+    @Benchmark
+    public void readFromJson(Blackhole blackhole) throws IOException {
+        for (var value : json) {
+            blackhole.consume(objectMapper.readValue(value, ProductDto.class).getPrice());
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.yuri.store.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yuri.store.dtos.ProductDto;
+import com.yuri.store.dtos.UserDto;
+import com.yuri.store.mappers.ProductMapperImpl;
+import com.yuri.store.mappers.UserMapperImpl;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON serialization of DTO lists with the same ObjectMapper defaults Spring MVC uses. Writing to
+ * a discarding stream measures the encoder; writing to a byte array adds the buffer growth a
+ * non-streaming response pays.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+    @Param({"10", "1000", "100000"})
+    private int size;
+
+    private ObjectMapper objectMapper;
+    private List<ProductDto> products;
+    private List<UserDto> users;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        var productMapper = new ProductMapperImpl(BenchmarkData.categoryRegistry());
+        var userMapper = new UserMapperImpl();
+        products = BenchmarkData.products(size).stream().map(productMapper::toDto).toList();
+        users = BenchmarkData.users(size).stream().map(userMapper::toDto).toList();
+    }
+
+    @Benchmark
+    public void productsToStream() throws IOException {
+        objectMapper.writeValue(OutputStream.nullOutputStream(), products);
+    }
+
+    @Benchmark
+    public byte[] productsToBytes() throws IOException {
+        return objectMapper.writeValueAsBytes(products);
+    }
+
+    @Benchmark
+    public void usersToStream() throws IOException {
+        objectMapper.writeValue(OutputStream.nullOutputStream(), users);
+    }
+
+    @Benchmark
+    public byte[] usersToBytes() throws IOException {
+        return objectMapper.writeValueAsBytes(users);
+    }
+}
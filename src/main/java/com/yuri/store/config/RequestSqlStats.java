@@ -0,0 +1,45 @@
+package com.yuri.store.config;
+
+/**
+ * SQL work done by the request running on the current thread. {@link SqlStatsSessionListener}
+ * adds to it from inside Hibernate and {@link RequestMetricsFilter} reads it when the request ends.
+ */
+public final class RequestSqlStats {
+    private static final ThreadLocal<RequestSqlStats> CURRENT = new ThreadLocal<>();
+
+    private int statements;
+    private long jdbcNanos;
+
+    private RequestSqlStats() {
+    }
+
+    static RequestSqlStats begin() {
+        var stats = new RequestSqlStats();
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    static void end() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Returns the stats of the current request, or {@code null} outside a request.
+     */
+    public static RequestSqlStats current() {
+        return CURRENT.get();
+    }
+
+    void record(long nanos) {
+        statements++;
+        jdbcNanos += nanos;
+    }
+
+    public int getStatements() {
+        return statements;
+    }
+
+    public long getJdbcNanos() {
+        return jdbcNanos;
+    }
+}
@@ -0,0 +1,39 @@
+package com.yuri.store.config;
+
+import org.hibernate.SessionEventListener;
+
+/**
+ * Times every JDBC statement and batch a session executes and charges it to the current
+ * request. Registered for all sessions through {@code hibernate.session.events.auto}.
+ */
+public class SqlStatsSessionListener implements SessionEventListener {
+    private long executeStart;
+    private long batchStart;
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        executeStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        record(executeStart);
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        batchStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        record(batchStart);
+    }
+
+    private static void record(long start) {
+        var stats = RequestSqlStats.current();
+        if (stats != null) {
+            stats.record(System.nanoTime() - start);
+        }
+    }
+}
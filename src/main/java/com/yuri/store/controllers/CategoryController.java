@@ -0,0 +1,41 @@
+package com.yuri.store.controllers;
+
+import com.yuri.store.dtos.CategoryPriceStatsDto;
+import com.yuri.store.dtos.CategorySummaryDto;
+import com.yuri.store.services.CategoryProductCounts;
+import com.yuri.store.services.CategoryRegistry;
+import com.yuri.store.services.ProductPriceColumns;
+import lombok.AllArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@AllArgsConstructor
+@RequestMapping("/categories")
+public class CategoryController {
+    private final CategoryRegistry categoryRegistry;
+    private final CategoryProductCounts categoryProductCounts;
+    private final ProductPriceColumns productPriceColumns;
+
+    /**
+     * Every category with its product count, served from memory.
+     */
+    @GetMapping
+    public List<CategorySummaryDto> getAllCategories() {
+        return categoryRegistry.findAllDtos().stream()
+                .map(category -> new CategorySummaryDto(
+                        category.getId(), category.getName(), categoryProductCounts.count(category.getId())))
+                .toList();
+    }
+
+    /**
+     * Min, max, average and percentile prices per category, served from memory.
+     */
+    @GetMapping("/price-stats")
+    public List<CategoryPriceStatsDto> getPriceStats() {
+        return productPriceColumns.statsByCategory();
+    }
+}
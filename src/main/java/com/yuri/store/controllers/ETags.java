@@ -0,0 +1,58 @@
+package com.yuri.store.controllers;
+
+/**
+ * Strong entity tags derived from an entity's {@code @Version} column.
+ */
+final class ETags {
+    /** Stands in for an If-Match tag this API never issued; no row ever has this version. */
+    private static final long NO_VERSION = -1;
+
+    private ETags() {
+    }
+
+    static String of(Long version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * If-None-Match uses the weak comparison, so {@code W/} prefixes are ignored.
+     */
+    static boolean noneMatchHits(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || etag == null) {
+            return false;
+        }
+        for (var candidate : ifNoneMatch.split(",")) {
+            var tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the version an If-Match header requires, or {@code null} when the request is
+     * unconditional (no header or {@code *}). A header that does not hold exactly one strong tag
+     * issued by this API yields a version no row can have, so the conditional write fails.
+     */
+    static Long requiredVersion(String ifMatch) {
+        if (ifMatch == null) {
+            return null;
+        }
+        var tag = ifMatch.trim();
+        if (tag.equals("*")) {
+            return null;
+        }
+        if (tag.length() < 3 || tag.charAt(0) != '"' || tag.charAt(tag.length() - 1) != '"') {
+            return NO_VERSION;
+        }
+        try {
+            return Long.parseLong(tag.substring(1, tag.length() - 1));
+        } catch (NumberFormatException e) {
+            return NO_VERSION;
+        }
+    }
+}
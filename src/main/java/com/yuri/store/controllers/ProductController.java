@@ -1,15 +1,37 @@
 package com.yuri.store.controllers;
 
-import com.yuri.store.repositories.CategoryRepository;
+import com.yuri.store.dtos.BatchItemResult;
 import com.yuri.store.dtos.ProductDto;
-import com.yuri.store.entities.Product;
+import com.yuri.store.dtos.ProductPageDto;
+import com.yuri.store.dtos.ProductSearchHitDto;
+import com.yuri.store.entities.Category;
+import com.yuri.store.events.ProductChangedEvent;
 import com.yuri.store.mappers.ProductMapper;
+import com.yuri.store.pagination.ProductCursor;
+import com.yuri.store.pagination.ProductSort;
+import com.yuri.store.repositories.ProductPageQuery;
 import com.yuri.store.repositories.ProductRepository;
+import com.yuri.store.services.CategoryRegistry;
+import com.yuri.store.services.ProductBatchService;
+import com.yuri.store.services.ProductCache;
+import com.yuri.store.services.ProductCatalogRevision;
+import com.yuri.store.services.ProductExportService;
+import com.yuri.store.services.ProductFacetIndex;
+import com.yuri.store.services.ProductRecommendationIndex;
+import com.yuri.store.services.ProductSearchIndex;
 import lombok.AllArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.util.UriComponentsBuilder;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
 import java.util.List;
 
 @AllArgsConstructor
@@ -18,81 +40,206 @@ import java.util.List;
 public class ProductController {
     private final ProductRepository productRepository;
     private final ProductMapper productMapper;
-    private final CategoryRepository categoryRepository;
+    private final CategoryRegistry categoryRegistry;
+    private final ProductExportService productExportService;
+    private final ProductCache productCache;
+    private final ProductBatchService productBatchService;
+    private final ProductSearchIndex productSearchIndex;
+    private final ProductFacetIndex productFacetIndex;
+    private final ProductRecommendationIndex productRecommendationIndex;
+    private final ProductCatalogRevision productCatalogRevision;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final int MAX_SEARCH_RESULTS = 100;
 
     @GetMapping
-    public List<ProductDto> getAllProducts(
-        @RequestParam(name = "categoryId", required = false) Byte categoryId
+    public ResponseEntity<ProductPageDto> getAllProducts(
+        @RequestParam(name = "categoryId", required = false) List<Byte> categoryIds,
+        @RequestParam(name = "minPrice", required = false) BigDecimal minPrice,
+        @RequestParam(name = "maxPrice", required = false) BigDecimal maxPrice,
+        @RequestParam(name = "sort", required = false, defaultValue = "") String sortBy,
+        @RequestParam(name = "after", required = false) String after,
+        @RequestParam(name = "limit", required = false, defaultValue = "" + DEFAULT_PAGE_SIZE) int limit,
+        @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
     ) {
-        List<Product> products;
-        if (categoryId != null) {
-            products = productRepository.findByCategoryId(categoryId);
+        var etag = productCatalogRevision.etag();
+        if (ETags.noneMatchHits(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+
+        var sort = ProductSort.fromParam(sortBy);
+        ProductCursor cursor = null;
+        if (after != null) {
+            cursor = ProductCursor.decode(after);
+            if (cursor == null || cursor.getSort() != sort) {
+                return ResponseEntity.badRequest().build();
+            }
+        }
+
+        var pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        var query = ProductPageQuery.builder()
+                .sort(sort)
+                .after(cursor)
+                .limit(pageSize + 1);
+
+        var filtered = (categoryIds != null && !categoryIds.isEmpty()) || minPrice != null || maxPrice != null;
+        if (filtered && sort == ProductSort.ID) {
+            // The bitmap index already knows the exact ids of the next page; the DB only hydrates them.
+            query.ids(productFacetIndex.matchingIds(categoryIds, minPrice, maxPrice,
+                    cursor == null ? null : cursor.getId(), pageSize + 1));
         } else {
-            products = productRepository.findAllWithCategory();
+            query.categoryIds(categoryIds).minPrice(minPrice).maxPrice(maxPrice);
         }
 
-        return products.stream().map(productMapper::toDto).toList();
+        var built = query.build();
+        List<ProductDto> items = built.getIds() != null && built.getIds().isEmpty()
+                ? List.of()
+                : productRepository.findPage(built);
+
+        String nextCursor = null;
+        if (items.size() > pageSize) {
+            items = items.subList(0, pageSize);
+            nextCursor = ProductCursor.of(sort, items.get(pageSize - 1)).encode();
+        }
+        items.forEach(item -> item.setCategory(categoryRegistry.findDto(item.getCategoryId())));
+
+        var facets = productFacetIndex.facets(categoryIds, minPrice, maxPrice);
+        return ResponseEntity.ok().eTag(etag).body(new ProductPageDto(items, nextCursor, facets));
+    }
+
+    @GetMapping("/search")
+    public List<ProductSearchHitDto> searchProducts(
+        @RequestParam(name = "q") String query,
+        @RequestParam(name = "limit", required = false, defaultValue = "20") int limit
+    ) {
+        return productSearchIndex.search(query, Math.max(1, Math.min(limit, MAX_SEARCH_RESULTS)));
+    }
+
+    @GetMapping("/{id}/related")
+    public List<ProductSearchHitDto> getRelatedProducts(
+        @PathVariable Long id,
+        @RequestParam(name = "limit", required = false, defaultValue = "10") int limit
+    ) {
+        return productRecommendationIndex.related(id, Math.max(1, limit));
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportProducts() {
+        StreamingResponseBody body = productExportService::exportNdjson;
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<ProductDto> getProduct(@PathVariable Long id) {
-        var product = productRepository.findById(id).orElse(null);
-        if (product == null) {
+    public ResponseEntity<ProductDto> getProduct(
+        @PathVariable Long id,
+        @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        if (ifNoneMatch != null) {
+            var cached = productCache.getIfPresent(id);
+            var version = cached != null
+                    ? cached.getVersion()
+                    : productRepository.findVersionById(id).orElse(null);
+            if (version != null && ETags.noneMatchHits(ifNoneMatch, ETags.of(version))) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(ETags.of(version)).build();
+            }
+        }
+
+        var productDto = productCache.get(id, key ->
+                productRepository.findById(key).map(productMapper::toDto).orElse(null));
+        if (productDto == null) {
             return ResponseEntity.notFound().build();
         }
-        return ResponseEntity.ok(productMapper.toDto(product));
+        return ResponseEntity.ok().eTag(ETags.of(productDto.getVersion())).body(productDto);
     }
 
     @PostMapping
     public ResponseEntity<ProductDto> createProduct(
         @RequestBody ProductDto productDto,
         UriComponentsBuilder uriBuilder) {
-        var category = categoryRepository.findById(productDto.getCategoryId()).orElse(null);
+        var category = findCategory(productDto);
         if (category == null) {
             return ResponseEntity.badRequest().build();
         }
 
         var product = productMapper.toEntity(productDto);
         product.setCategory(category);
-        productRepository.save(product);
+        product = productRepository.save(product);
         productDto.setId(product.getId());
+        productDto.setVersion(product.getVersion());
 
         var uri = uriBuilder.path("/products/{id}").buildAndExpand(productDto.getId()).toUri();
 
-        return ResponseEntity.created(uri).body(productDto);
+        return ResponseEntity.created(uri).eTag(ETags.of(productDto.getVersion())).body(productDto);
+    }
+
+    @PostMapping(value = "/batch", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<List<BatchItemResult>> createProducts(InputStream body) throws IOException {
+        return ResponseEntity.ok(productBatchService.createAll(body));
     }
 
     @PutMapping("/{id}")
     public ResponseEntity<ProductDto> updateProduct(
         @PathVariable Long id,
-        @RequestBody ProductDto productDto) {
-        var category = categoryRepository.findById(productDto.getCategoryId()).orElse(null);
+        @RequestBody ProductDto productDto,
+        @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        var category = findCategory(productDto);
         if (category == null) {
             return ResponseEntity.badRequest().build();
         }
 
-        var product = productRepository.findById(id).orElse(null);
-        if (product == null) {
-            return ResponseEntity.notFound().build();
+        var version = ETags.requiredVersion(ifMatch);
+        Long newVersion;
+        if (version == null) {
+            newVersion = productRepository.updateAndGetVersion(
+                    id, productDto.getName(), productDto.getDescription(), productDto.getPrice(), category).orElse(null);
+        } else {
+            var updated = productRepository.updateIfVersion(
+                    id, version, productDto.getName(), productDto.getDescription(), productDto.getPrice(), category);
+            newVersion = updated == 0 ? null : version + 1;
+        }
+        if (newVersion == null) {
+            return preconditionFailedOrNotFound(id, version);
         }
 
-        productMapper.update(productDto, product);
-        product.setCategory(category);
-        productRepository.save(product);
-        productDto.setId(product.getId());
-
-        return ResponseEntity.ok(productDto);
+        productDto.setId(id);
+        productDto.setVersion(newVersion);
+        // Set-based writes bypass the entity listener, so announce the change here.
+        eventPublisher.publishEvent(ProductChangedEvent.updated(productDto));
+        return ResponseEntity.ok().eTag(ETags.of(newVersion)).body(productDto);
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deleteProduct(@PathVariable Long id) {
-        var product = productRepository.findById(id).orElse(null);
-        if (product == null) {
-            return ResponseEntity.notFound().build();
+    public ResponseEntity<Void> deleteProduct(
+        @PathVariable Long id,
+        @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        var version = ETags.requiredVersion(ifMatch);
+        var deleted = version == null
+                ? productRepository.removeById(id)
+                : productRepository.removeIfVersion(id, version);
+        if (deleted == 0) {
+            return preconditionFailedOrNotFound(id, version);
         }
 
-        productRepository.delete(product);
-
+        eventPublisher.publishEvent(ProductChangedEvent.deleted(id));
         return ResponseEntity.noContent().build();
     }
+
+    /**
+     * A write that matched no row only costs a second query when it was conditional.
+     */
+    private <T> ResponseEntity<T> preconditionFailedOrNotFound(Long id, Long version) {
+        return version != null && productRepository.existsById(id)
+                ? ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build()
+                : ResponseEntity.notFound().build();
+    }
+
+    private Category findCategory(ProductDto productDto) {
+        if (productDto.getCategoryId() == null) {
+            return null;
+        }
+        return categoryRegistry.find(productDto.getCategoryId());
+    }
 }
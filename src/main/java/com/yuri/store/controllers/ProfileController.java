@@ -0,0 +1,72 @@
+package com.yuri.store.controllers;
+
+import com.yuri.store.dtos.AwardPointsRequest;
+import com.yuri.store.dtos.LeaderboardEntryDto;
+import com.yuri.store.dtos.LoyaltyPointsDto;
+import com.yuri.store.repositories.ProfileRepository;
+import com.yuri.store.repositories.UserRepository;
+import com.yuri.store.services.LoyaltyLeaderboard;
+import com.yuri.store.services.LoyaltyPointsAccumulator;
+import lombok.AllArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@AllArgsConstructor
+@RequestMapping("/profiles")
+public class ProfileController {
+    private static final int MAX_LEADERBOARD_SIZE = 100;
+
+    private final ProfileRepository profileRepository;
+    private final UserRepository userRepository;
+    private final LoyaltyPointsAccumulator loyaltyPointsAccumulator;
+    private final LoyaltyLeaderboard loyaltyLeaderboard;
+
+    @GetMapping("/leaderboard")
+    public List<LeaderboardEntryDto> getLeaderboard(
+        @RequestParam(name = "limit", required = false, defaultValue = "10") int limit
+    ) {
+        return loyaltyLeaderboard.top(Math.max(1, Math.min(limit, MAX_LEADERBOARD_SIZE)));
+    }
+
+    @GetMapping("/{userId}/rank")
+    public ResponseEntity<LeaderboardEntryDto> getRank(@PathVariable Long userId) {
+        var entry = loyaltyLeaderboard.rankOf(userId);
+        if (entry == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(entry);
+    }
+
+    /**
+     * Stored balance plus the points still waiting for the next flush.
+     */
+    @GetMapping("/{userId}/loyalty-points")
+    public ResponseEntity<LoyaltyPointsDto> getLoyaltyPoints(@PathVariable Long userId) {
+        var stored = profileRepository.findLoyaltyPointsById(userId).orElse(null);
+        if (stored == null && !userRepository.existsById(userId)) {
+            return ResponseEntity.notFound().build();
+        }
+
+        var points = (stored == null ? 0 : stored) + loyaltyPointsAccumulator.pending(userId);
+        return ResponseEntity.ok(new LoyaltyPointsDto(userId, points));
+    }
+
+    /**
+     * Accepted without touching the database; the points are written by the next flush.
+     * Awards over the per-award or pending caps are rejected with 400. The user is not looked up,
+     * so an unknown user id is also answered with 202; its points are dropped by the flush and
+     * counted in {@code store.loyalty.dropped.points}.
+     */
+    @PostMapping("/{userId}/loyalty-points")
+    public ResponseEntity<Void> awardLoyaltyPoints(
+            @PathVariable Long userId,
+            @RequestBody AwardPointsRequest request) {
+        if (request.getPoints() <= 0 || !loyaltyPointsAccumulator.award(userId, request.getPoints())) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.accepted().build();
+    }
+}
@@ -1,19 +1,32 @@
 package com.yuri.store.controllers;
 
+import com.yuri.store.dtos.BatchItemResult;
 import com.yuri.store.dtos.ChangePasswordRequest;
 import com.yuri.store.dtos.UpdateUserRequest;
 import com.yuri.store.dtos.RegisterUserRequest;
 import com.yuri.store.repositories.UserRepository;
 import com.yuri.store.dtos.UserDto;
 import com.yuri.store.mappers.UserMapper;
+import com.yuri.store.services.EmailBloomFilter;
+import com.yuri.store.services.PasswordHasher;
+import com.yuri.store.services.UserAccountService;
+import com.yuri.store.services.UserBatchService;
 import lombok.AllArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.util.UriComponentsBuilder;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @AllArgsConstructor
@@ -21,6 +34,10 @@ import java.util.Set;
 public class UserController {
     private final UserRepository userRepository;
     private final UserMapper userMapper;
+    private final UserBatchService userBatchService;
+    private final UserAccountService userAccountService;
+    private final EmailBloomFilter emailBloomFilter;
+    private final PasswordHasher passwordHasher;
 
     @GetMapping
     public Iterable<UserDto> getAllUsers(
@@ -29,58 +46,88 @@ public class UserController {
         if (!Set.of("name", "email").contains(sortBy))
             sortBy = "name";
 
-        return userRepository.findAll(Sort.by(sortBy))
-                .stream()
-                .map(userMapper::toDto)
-                .toList();
+        return userRepository.findAllDtos(Sort.by(sortBy));
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<UserDto> getUser(@PathVariable Long id) {
+    public ResponseEntity<UserDto> getUser(
+        @PathVariable Long id,
+        @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        if (ifNoneMatch != null) {
+            var version = userRepository.findVersionById(id).orElse(null);
+            if (version != null && ETags.noneMatchHits(ifNoneMatch, ETags.of(version))) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(ETags.of(version)).build();
+            }
+        }
+
         var user = userRepository.findById(id).orElse(null);
         if (user == null) {
             return ResponseEntity.notFound().build();
         }
 
-        return ResponseEntity.ok(userMapper.toDto(user));
+        return ResponseEntity.ok().eTag(ETags.of(user.getVersion())).body(userMapper.toDto(user));
     }
 
     @PostMapping
     public ResponseEntity<UserDto> createUser(
             @RequestBody RegisterUserRequest request,
             UriComponentsBuilder uriBuilder) {
+        if (emailBloomFilter.isTaken(request.getEmail())) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+
         var user = userMapper.toEntity(request);
-        userRepository.save(user);
+        user.setPassword(passwordHasher.encode(request.getPassword()));
+        user = userRepository.save(user);
+        emailBloomFilter.put(user.getEmail());
 
         var userDto = userMapper.toDto(user);
         var uri = uriBuilder.path("/users/{id}").buildAndExpand(userDto.getId()).toUri();
 
-        return ResponseEntity.created(uri).body(userDto);
+        return ResponseEntity.created(uri).eTag(ETags.of(user.getVersion())).body(userDto);
+    }
+
+    @PostMapping(value = "/batch", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<List<BatchItemResult>> createUsers(InputStream body) throws IOException {
+        return ResponseEntity.ok(userBatchService.createAll(body));
+    }
+
+    @PatchMapping(value = "/batch", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<List<BatchItemResult>> updateUsers(InputStream body) throws IOException {
+        return ResponseEntity.ok(userBatchService.updateAll(body));
     }
 
     @PutMapping("/{id}")
     public ResponseEntity<UserDto> updateUser(
         @PathVariable(name = "id") Long id,
-        @RequestBody UpdateUserRequest request) {
-        var user = userRepository.findById(id).orElse(null);
-        if (user == null) {
-            return ResponseEntity.notFound().build();
+        @RequestBody UpdateUserRequest request,
+        @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        var version = ETags.requiredVersion(ifMatch);
+        Long newVersion;
+        if (version == null) {
+            newVersion = userRepository.updateAndGetVersion(id, request.getName(), request.getEmail()).orElse(null);
+        } else {
+            var updated = userRepository.updateIfVersion(id, version, request.getName(), request.getEmail());
+            newVersion = updated == 0 ? null : version + 1;
         }
+        if (newVersion == null) {
+            return preconditionFailedOrNotFound(id, version);
+        }
+        emailBloomFilter.renamed(request.getEmail());
 
-        userMapper.update(request, user);
-        userRepository.save(user);
-
-        return ResponseEntity.ok(userMapper.toDto(user));
+        return ResponseEntity.ok()
+                .eTag(ETags.of(newVersion))
+                .body(new UserDto(id, request.getName(), request.getEmail()));
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deleteUser(@PathVariable Long id) {
-        var user = userRepository.findById(id).orElse(null);
-        if (user == null) {
-            return ResponseEntity.notFound().build();
+    public ResponseEntity<Void> deleteUser(
+        @PathVariable Long id,
+        @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        var version = ETags.requiredVersion(ifMatch);
+        if (userAccountService.delete(id, version) == 0) {
+            return preconditionFailedOrNotFound(id, version);
         }
-
-        userRepository.delete(user);
         return ResponseEntity.noContent().build();
     }
 
@@ -88,18 +135,51 @@ public class UserController {
     public ResponseEntity<Void> changePassword(
             @PathVariable Long id,
             @RequestBody ChangePasswordRequest request) {
-        var user = userRepository.findById(id).orElse(null);
-        if (user == null) {
-            return ResponseEntity.notFound().build();
+        if (request.getOldPassword() == null || request.getNewPassword() == null) {
+            return ResponseEntity.badRequest().build();
         }
 
-        if (!user.getPassword().equals(request.getOldPassword())) {
+        var stored = userRepository.findPasswordById(id).orElse(null);
+        if (stored == null) {
+            return ResponseEntity.notFound().build();
+        }
+        if (!passwordHasher.matches(request.getOldPassword(), stored)) {
             return new ResponseEntity<>(HttpStatus.UNAUTHORIZED);
         }
 
-        user.setPassword(request.getNewPassword());
-        userRepository.save(user);
+        // Also upgrades a legacy plain-text row, since the new password is always hashed.
+        var newPassword = passwordHasher.encode(request.getNewPassword());
+        if (userRepository.updatePasswordIfUnchanged(id, stored, newPassword) == 0) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
 
         return ResponseEntity.noContent().build();
     }
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<Void> handleConcurrentUpdate() {
+        return ResponseEntity.status(HttpStatus.CONFLICT).build();
+    }
+
+    /**
+     * The unique email index catches what the filter check cannot: two sign-ups racing for the
+     * same email, or an update to an email that is already taken.
+     */
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<Void> handleEmailTaken() {
+        return ResponseEntity.status(HttpStatus.CONFLICT).build();
+    }
+
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<Void> handlePasswordHasherOverloaded() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .build();
+    }
+
+    private <T> ResponseEntity<T> preconditionFailedOrNotFound(Long id, Long version) {
+        return version != null && userRepository.existsById(id)
+                ? ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build()
+                : ResponseEntity.notFound().build();
+    }
 }
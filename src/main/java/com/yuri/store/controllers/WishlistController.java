@@ -0,0 +1,95 @@
+package com.yuri.store.controllers;
+
+import com.yuri.store.dtos.ProductDto;
+import com.yuri.store.dtos.ProductPageDto;
+import com.yuri.store.pagination.ProductCursor;
+import com.yuri.store.pagination.ProductSort;
+import com.yuri.store.repositories.ProductPageQuery;
+import com.yuri.store.repositories.ProductRepository;
+import com.yuri.store.services.CategoryRegistry;
+import com.yuri.store.services.WishlistService;
+import lombok.AllArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@AllArgsConstructor
+@RequestMapping("/users/{userId}/wishlist")
+public class WishlistController {
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private final WishlistService wishlistService;
+    private final ProductRepository productRepository;
+    private final CategoryRegistry categoryRegistry;
+
+    @GetMapping
+    public ResponseEntity<ProductPageDto> getWishlist(
+        @PathVariable Long userId,
+        @RequestParam(name = "after", required = false) String after,
+        @RequestParam(name = "limit", required = false, defaultValue = "" + DEFAULT_PAGE_SIZE) int limit
+    ) {
+        ProductCursor cursor = null;
+        if (after != null) {
+            cursor = ProductCursor.decode(after);
+            if (cursor == null || cursor.getSort() != ProductSort.ID) {
+                return ResponseEntity.badRequest().build();
+            }
+        }
+
+        var pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        var ids = wishlistService.page(userId, cursor == null ? null : cursor.getId(), pageSize + 1);
+        if (ids == null) {
+            return ResponseEntity.notFound().build();
+        }
+
+        List<ProductDto> items = ids.isEmpty()
+                ? List.of()
+                : productRepository.findPage(ProductPageQuery.builder()
+                        .ids(ids)
+                        .sort(ProductSort.ID)
+                        .limit(pageSize + 1)
+                        .build());
+
+        String nextCursor = null;
+        if (items.size() > pageSize) {
+            items = items.subList(0, pageSize);
+            nextCursor = ProductCursor.of(ProductSort.ID, items.get(pageSize - 1)).encode();
+        }
+        items.forEach(item -> item.setCategory(categoryRegistry.findDto(item.getCategoryId())));
+
+        return ResponseEntity.ok(new ProductPageDto(items, nextCursor, null));
+    }
+
+    /**
+     * Answers from the in-memory wishlist; a listing page checks all of its products in one call.
+     */
+    @GetMapping("/contains")
+    public ResponseEntity<Map<Long, Boolean>> containsProducts(
+        @PathVariable Long userId,
+        @RequestParam(name = "productId") List<Long> productIds
+    ) {
+        var result = wishlistService.contains(userId, productIds);
+        if (result == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(result);
+    }
+
+    @PutMapping("/{productId}")
+    public ResponseEntity<Void> addProduct(@PathVariable Long userId, @PathVariable Long productId) {
+        return wishlistService.add(userId, productId)
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.notFound().build();
+    }
+
+    @DeleteMapping("/{productId}")
+    public ResponseEntity<Void> removeProduct(@PathVariable Long userId, @PathVariable Long productId) {
+        return wishlistService.remove(userId, productId)
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.notFound().build();
+    }
+}
@@ -0,0 +1,8 @@
+package com.yuri.store.dtos;
+
+import lombok.Data;
+
+@Data
+public class AwardPointsRequest {
+    private int points;
+}
@@ -0,0 +1,24 @@
+package com.yuri.store.dtos;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+
+@Getter
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchItemResult {
+    private int index;
+    private int status;
+    private Long id;
+    private String error;
+
+    public static BatchItemResult ok(int index, HttpStatus status, Long id) {
+        return new BatchItemResult(index, status.value(), id, null);
+    }
+
+    public static BatchItemResult failed(int index, HttpStatus status, String error) {
+        return new BatchItemResult(index, status.value(), null, error);
+    }
+}
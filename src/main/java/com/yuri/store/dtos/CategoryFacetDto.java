@@ -0,0 +1,13 @@
+package com.yuri.store.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategoryFacetDto {
+    private Byte categoryId;
+    private int count;
+}
@@ -0,0 +1,21 @@
+package com.yuri.store.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategoryPriceStatsDto {
+    private Byte categoryId;
+    private int count;
+    private BigDecimal min;
+    private BigDecimal max;
+    private BigDecimal average;
+    private BigDecimal p50;
+    private BigDecimal p90;
+    private BigDecimal p99;
+}
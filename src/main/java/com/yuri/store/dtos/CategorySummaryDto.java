@@ -0,0 +1,14 @@
+package com.yuri.store.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategorySummaryDto {
+    private Byte id;
+    private String name;
+    private int productCount;
+}
@@ -0,0 +1,12 @@
+package com.yuri.store.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@AllArgsConstructor
+@Getter
+public class LeaderboardEntryDto {
+    private long rank;
+    private Long userId;
+    private long points;
+}
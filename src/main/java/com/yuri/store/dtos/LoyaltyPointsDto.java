@@ -0,0 +1,11 @@
+package com.yuri.store.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@AllArgsConstructor
+@Getter
+public class LoyaltyPointsDto {
+    private Long userId;
+    private long points;
+}
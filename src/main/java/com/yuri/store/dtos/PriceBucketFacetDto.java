@@ -0,0 +1,16 @@
+package com.yuri.store.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PriceBucketFacetDto {
+    private BigDecimal minPrice;
+    private BigDecimal maxPrice;
+    private int count;
+}
@@ -1,9 +1,13 @@
 package com.yuri.store.dtos;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Data;
+import lombok.NoArgsConstructor;
+
 import java.math.BigDecimal;
 
 @Data
+@NoArgsConstructor
 public class ProductDto {
     private Long id;
     private String name;
@@ -11,6 +15,21 @@ public class ProductDto {
     private String description;
     private Byte categoryId;
     private CategoryDto category;
+
+    @JsonIgnore
+    private Long version;
+
+    /**
+     * Projection constructor for read-only list queries; {@code category} is filled in afterwards.
+     */
+    public ProductDto(Long id, String name, BigDecimal price, String description, Byte categoryId, Long version) {
+        this.id = id;
+        this.name = name;
+        this.price = price;
+        this.description = description;
+        this.categoryId = categoryId;
+        this.version = version;
+    }
 }
 
 
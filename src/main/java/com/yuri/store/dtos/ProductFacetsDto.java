@@ -0,0 +1,16 @@
+package com.yuri.store.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductFacetsDto {
+    private int total;
+    private List<CategoryFacetDto> categories;
+    private List<PriceBucketFacetDto> priceBuckets;
+}
@@ -0,0 +1,14 @@
+package com.yuri.store.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+
+@Getter
+@AllArgsConstructor
+public class ProductPricePoint {
+    private Long id;
+    private Byte categoryId;
+    private BigDecimal price;
+}
@@ -0,0 +1,18 @@
+package com.yuri.store.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSearchHitDto {
+    private Long id;
+    private String name;
+    private BigDecimal price;
+    private Byte categoryId;
+    private double score;
+}
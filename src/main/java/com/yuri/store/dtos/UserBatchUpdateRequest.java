@@ -0,0 +1,10 @@
+package com.yuri.store.dtos;
+
+import lombok.Data;
+
+@Data
+public class UserBatchUpdateRequest {
+    private Long id;
+    private String name;
+    private String email;
+}
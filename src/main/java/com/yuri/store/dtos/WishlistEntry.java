@@ -0,0 +1,11 @@
+package com.yuri.store.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class WishlistEntry {
+    private Long userId;
+    private Long productId;
+}
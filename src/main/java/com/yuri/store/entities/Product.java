@@ -1,5 +1,6 @@
 package com.yuri.store.entities;
 
+import com.yuri.store.events.ProductEntityListener;
 import jakarta.persistence.*;
 import lombok.*;
 
@@ -12,9 +13,11 @@ import java.math.BigDecimal;
 @NoArgsConstructor
 @Entity
 @Table(name = "products")
+@EntityListeners(ProductEntityListener.class)
 public class Product {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "products_seq")
+    @SequenceGenerator(name = "products_seq", sequenceName = "products_seq", allocationSize = 50)
     @Column(name = "id")
     private Long id;
 
@@ -30,4 +33,8 @@ public class Product {
     @ManyToOne
     @JoinColumn(name = "category_id")
     private Category category;
+
+    @Version
+    @Column(name = "version")
+    private Long version;
 }
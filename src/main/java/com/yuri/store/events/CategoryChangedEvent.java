@@ -0,0 +1,25 @@
+package com.yuri.store.events;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Published for every category write. {@code name} is {@code null} for deletions.
+ */
+@Getter
+@AllArgsConstructor
+public class CategoryChangedEvent {
+    public enum Type { SAVED, DELETED }
+
+    private final Type type;
+    private final Byte categoryId;
+    private final String name;
+
+    public static CategoryChangedEvent saved(Byte categoryId, String name) {
+        return new CategoryChangedEvent(Type.SAVED, categoryId, name);
+    }
+
+    public static CategoryChangedEvent deleted(Byte categoryId) {
+        return new CategoryChangedEvent(Type.DELETED, categoryId, null);
+    }
+}
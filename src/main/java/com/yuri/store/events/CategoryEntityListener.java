@@ -0,0 +1,31 @@
+package com.yuri.store.events;
+
+import com.yuri.store.entities.Category;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.context.ApplicationEventPublisher;
+
+/**
+ * Turns every category write that goes through JPA into a {@link CategoryChangedEvent}.
+ * Subscribers use {@code @TransactionalEventListener}, so a rolled-back insert or rename
+ * never reaches them.
+ */
+public class CategoryEntityListener {
+    private final ApplicationEventPublisher eventPublisher;
+
+    public CategoryEntityListener(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void onSaved(Category category) {
+        eventPublisher.publishEvent(CategoryChangedEvent.saved(category.getId(), category.getName()));
+    }
+
+    @PostRemove
+    public void onDeleted(Category category) {
+        eventPublisher.publishEvent(CategoryChangedEvent.deleted(category.getId()));
+    }
+}
@@ -0,0 +1,16 @@
+package com.yuri.store.events;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Map;
+
+/**
+ * Published after a loyalty points flush with the points each user gained. Only users whose
+ * profile row was actually written are included.
+ */
+@Getter
+@AllArgsConstructor
+public class LoyaltyPointsChangedEvent {
+    private final Map<Long, Long> deltas;
+}
@@ -0,0 +1,31 @@
+package com.yuri.store.events;
+
+import com.yuri.store.dtos.ProductDto;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Published for every product write. {@code product} holds the state that was
+ * written and is {@code null} for deletions.
+ */
+@Getter
+@AllArgsConstructor
+public class ProductChangedEvent {
+    public enum Type { CREATED, UPDATED, DELETED }
+
+    private final Type type;
+    private final Long productId;
+    private final ProductDto product;
+
+    public static ProductChangedEvent created(ProductDto product) {
+        return new ProductChangedEvent(Type.CREATED, product.getId(), product);
+    }
+
+    public static ProductChangedEvent updated(ProductDto product) {
+        return new ProductChangedEvent(Type.UPDATED, product.getId(), product);
+    }
+
+    public static ProductChangedEvent deleted(Long productId) {
+        return new ProductChangedEvent(Type.DELETED, productId, null);
+    }
+}
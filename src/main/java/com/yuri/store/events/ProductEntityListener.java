@@ -0,0 +1,39 @@
+package com.yuri.store.events;
+
+import com.yuri.store.entities.Product;
+import com.yuri.store.mappers.ProductMapper;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Lazy;
+
+/**
+ * Turns every product insert, update and delete that goes through JPA into a
+ * {@link ProductChangedEvent}. Subscribers use {@code @TransactionalEventListener}
+ * so they only see writes that were committed.
+ */
+public class ProductEntityListener {
+    private final ApplicationEventPublisher eventPublisher;
+    private final ProductMapper productMapper;
+
+    public ProductEntityListener(ApplicationEventPublisher eventPublisher, @Lazy ProductMapper productMapper) {
+        this.eventPublisher = eventPublisher;
+        this.productMapper = productMapper;
+    }
+
+    @PostPersist
+    public void onCreated(Product product) {
+        eventPublisher.publishEvent(ProductChangedEvent.created(productMapper.toDto(product)));
+    }
+
+    @PostUpdate
+    public void onUpdated(Product product) {
+        eventPublisher.publishEvent(ProductChangedEvent.updated(productMapper.toDto(product)));
+    }
+
+    @PostRemove
+    public void onDeleted(Product product) {
+        eventPublisher.publishEvent(ProductChangedEvent.deleted(product.getId()));
+    }
+}
@@ -0,0 +1,13 @@
+package com.yuri.store.events;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Published when a user and everything that hangs off it (addresses, profile, wishlist) is deleted.
+ */
+@Getter
+@AllArgsConstructor
+public class UserDeletedEvent {
+    private final Long userId;
+}
@@ -0,0 +1,26 @@
+package com.yuri.store.events;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Published after a wishlist write. A wishlist that goes away with its user is announced by
+ * {@link UserDeletedEvent} instead.
+ */
+@Getter
+@AllArgsConstructor
+public class WishlistChangedEvent {
+    public enum Type { ADDED, REMOVED }
+
+    private final Type type;
+    private final Long userId;
+    private final Long productId;
+
+    public static WishlistChangedEvent added(Long userId, Long productId) {
+        return new WishlistChangedEvent(Type.ADDED, userId, productId);
+    }
+
+    public static WishlistChangedEvent removed(Long userId, Long productId) {
+        return new WishlistChangedEvent(Type.REMOVED, userId, productId);
+    }
+}
@@ -2,14 +2,26 @@ package com.yuri.store.mappers;
 
 import com.yuri.store.dtos.UpdateUserRequest;
 import com.yuri.store.dtos.RegisterUserRequest;
+import com.yuri.store.dtos.UserBatchUpdateRequest;
 import com.yuri.store.dtos.UserDto;
 import com.yuri.store.entities.User;
+import org.mapstruct.BeanMapping;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 import org.mapstruct.MappingTarget;
+import org.mapstruct.NullValuePropertyMappingStrategy;
 
 @Mapper(componentModel = "spring")
 public interface UserMapper {
     UserDto toDto(User user);
     User toEntity(RegisterUserRequest request);
     void update(UpdateUserRequest request, @MappingTarget User user);
+
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "password", ignore = true)
+    @Mapping(target = "version", ignore = true)
+    @Mapping(target = "addresses", ignore = true)
+    @Mapping(target = "favoriteProducts", ignore = true)
+    @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
+    void update(UserBatchUpdateRequest request, @MappingTarget User user);
 }
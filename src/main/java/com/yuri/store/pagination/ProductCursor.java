@@ -0,0 +1,63 @@
+package com.yuri.store.pagination;
+
+import com.yuri.store.dtos.ProductDto;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque keyset position: the sort key and the last (value, id) pair a client has seen.
+ * Clients only ever get the Base64 token, so the format can change without breaking them.
+ */
+@Getter
+@AllArgsConstructor
+public class ProductCursor {
+    private static final String SEPARATOR = ":";
+
+    private final ProductSort sort;
+    private final long id;
+    private final String value;
+
+    public static ProductCursor of(ProductSort sort, ProductDto product) {
+        String value = switch (sort) {
+            case ID -> "";
+            case NAME -> product.getName();
+            case PRICE -> product.getPrice().toPlainString();
+        };
+        return new ProductCursor(sort, product.getId(), value);
+    }
+
+    public String encode() {
+        var raw = sort.name() + SEPARATOR + id + SEPARATOR + value;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public BigDecimal priceValue() {
+        return new BigDecimal(value);
+    }
+
+    /**
+     * Returns {@code null} when the token was not produced by {@link #encode()}.
+     */
+    public static ProductCursor decode(String token) {
+        try {
+            var raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            var parts = raw.split(SEPARATOR, 3);
+            if (parts.length != 3) {
+                return null;
+            }
+
+            var sort = ProductSort.valueOf(parts[0]);
+            var id = Long.parseLong(parts[1]);
+            if (sort == ProductSort.PRICE) {
+                new BigDecimal(parts[2]);
+            }
+            return new ProductCursor(sort, id, parts[2]);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.yuri.store.pagination;
+
+public enum ProductSort {
+    ID("id"),
+    NAME("name"),
+    PRICE("price");
+
+    private final String property;
+
+    ProductSort(String property) {
+        this.property = property;
+    }
+
+    public String getProperty() {
+        return property;
+    }
+
+    public static ProductSort fromParam(String value) {
+        for (var sort : values()) {
+            if (sort.property.equalsIgnoreCase(value)) {
+                return sort;
+            }
+        }
+        return ID;
+    }
+}
@@ -1,7 +1,12 @@
 package com.yuri.store.repositories;
 
 import com.yuri.store.entities.Address;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 
 public interface AddressRepository extends CrudRepository<Address, Long> {
+    @Modifying
+    @Query("DELETE FROM Address a WHERE a.user.id = :userId")
+    int deleteAllByUserId(Long userId);
 }
@@ -0,0 +1,21 @@
+package com.yuri.store.repositories;
+
+import com.yuri.store.pagination.ProductCursor;
+import com.yuri.store.pagination.ProductSort;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+
+@Getter
+@Builder
+public class ProductPageQuery {
+    private final Collection<Byte> categoryIds;
+    private final BigDecimal minPrice;
+    private final BigDecimal maxPrice;
+    private final Collection<Long> ids;
+    private final ProductSort sort;
+    private final ProductCursor after;
+    private final int limit;
+}
@@ -1,17 +1,99 @@
 package com.yuri.store.repositories;
 
+import com.yuri.store.dtos.ProductPricePoint;
+import com.yuri.store.entities.Category;
 import com.yuri.store.entities.Product;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, ProductRepositoryCustom {
+    /**
+     * Cached in the {@code product-queries} region; any write to {@code products} invalidates it.
+     */
     @EntityGraph(attributePaths = "category")
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "product-queries")
+    })
     List<Product> findByCategoryId(Byte categoryId);
 
     @EntityGraph(attributePaths = "category")
     @Query("SELECT p FROM Product p")
     List<Product> findAllWithCategory();
+
+    @EntityGraph(attributePaths = "category")
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT p FROM Product p ORDER BY p.id")
+    Stream<Product> streamAllWithCategory();
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT new com.yuri.store.dtos.ProductPricePoint(p.id, p.category.id, p.price) FROM Product p")
+    Stream<ProductPricePoint> streamPricePoints();
+
+    @Query("SELECT p.version FROM Product p WHERE p.id = :id")
+    Optional<Long> findVersionById(Long id);
+
+    /**
+     * Overwrites the product in one statement and returns the number of rows changed, so 0 means
+     * it does not exist. Entity listeners do not run for this statement.
+     */
+    @Transactional
+    @Modifying
+    @Query("""
+        UPDATE Product p
+        SET p.name = :name, p.description = :description, p.price = :price, p.category = :category,
+            p.version = p.version + 1
+        WHERE p.id = :id""")
+    int updateById(Long id, String name, String description, BigDecimal price, Category category);
+
+    /**
+     * {@link #updateById} followed by reading the new version back in the same transaction.
+     * Empty when the product does not exist.
+     */
+    @Transactional
+    default Optional<Long> updateAndGetVersion(Long id, String name, String description, BigDecimal price, Category category) {
+        return updateById(id, name, description, price, category) == 0 ? Optional.empty() : findVersionById(id);
+    }
+
+    /**
+     * Overwrites the product only if it is still at {@code version}. Returns the number of rows
+     * changed, so 0 means the product is gone or was modified concurrently. Entity listeners do
+     * not run for this statement.
+     */
+    @Transactional
+    @Modifying
+    @Query("""
+        UPDATE Product p
+        SET p.name = :name, p.description = :description, p.price = :price, p.category = :category,
+            p.version = p.version + 1
+        WHERE p.id = :id AND p.version = :version""")
+    int updateIfVersion(Long id, Long version, String name, String description, BigDecimal price, Category category);
+
+    /**
+     * Deletes without loading the product first; wishlist rows go with it through the
+     * {@code ON DELETE CASCADE} foreign key. Returns the number of rows deleted.
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM Product p WHERE p.id = :id")
+    int removeById(Long id);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM Product p WHERE p.id = :id AND p.version = :version")
+    int removeIfVersion(Long id, Long version);
 }
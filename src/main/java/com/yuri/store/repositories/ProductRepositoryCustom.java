@@ -0,0 +1,12 @@
+package com.yuri.store.repositories;
+
+import com.yuri.store.dtos.ProductDto;
+
+import java.util.List;
+
+public interface ProductRepositoryCustom {
+    /**
+     * Selects the page straight into DTOs; {@code category} is left for the caller to resolve.
+     */
+    List<ProductDto> findPage(ProductPageQuery query);
+}
@@ -0,0 +1,83 @@
+package com.yuri.store.repositories;
+
+import com.yuri.store.dtos.ProductDto;
+import com.yuri.store.entities.Product;
+import com.yuri.store.pagination.ProductCursor;
+import com.yuri.store.pagination.ProductSort;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ProductRepositoryCustomImpl implements ProductRepositoryCustom {
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Constructor projection: no managed entities, snapshots or proxies, and category_id is read
+    // from the products row without joining categories.
+    @Override
+    @Transactional(readOnly = true)
+    public List<ProductDto> findPage(ProductPageQuery query) {
+        var cb = entityManager.getCriteriaBuilder();
+        var cq = cb.createQuery(ProductDto.class);
+        var product = cq.from(Product.class);
+
+        List<Predicate> predicates = new ArrayList<>();
+        if (query.getCategoryIds() != null && !query.getCategoryIds().isEmpty()) {
+            predicates.add(product.get("category").get("id").in(query.getCategoryIds()));
+        }
+        if (query.getMinPrice() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(product.get("price"), query.getMinPrice()));
+        }
+        if (query.getMaxPrice() != null) {
+            predicates.add(cb.lessThanOrEqualTo(product.get("price"), query.getMaxPrice()));
+        }
+        if (query.getIds() != null) {
+            predicates.add(product.get("id").in(query.getIds()));
+        }
+        if (query.getAfter() != null) {
+            predicates.add(seekPredicate(cb, product, query.getAfter()));
+        }
+
+        var id = product.get("id");
+        var orders = query.getSort() == ProductSort.ID
+                ? List.of(cb.asc(id))
+                : List.of(cb.asc(product.get(query.getSort().getProperty())), cb.asc(id));
+        cq.select(cb.construct(ProductDto.class,
+                        id,
+                        product.get("name"),
+                        product.get("price"),
+                        product.get("description"),
+                        product.get("category").get("id"),
+                        product.get("version")))
+                .where(predicates.toArray(Predicate[]::new))
+                .orderBy(orders);
+
+        return entityManager.createQuery(cq)
+                .setMaxResults(query.getLimit())
+                .getResultList();
+    }
+
+    // Seek past the last row seen instead of OFFSET, so every page is a single index range scan.
+    private Predicate seekPredicate(CriteriaBuilder cb, Root<Product> product, ProductCursor after) {
+        Path<Long> id = product.get("id");
+        return switch (after.getSort()) {
+            case ID -> cb.greaterThan(id, after.getId());
+            case NAME -> seek(cb, product.get("name"), after.getValue(), id, after.getId());
+            case PRICE -> seek(cb, product.get("price"), after.priceValue(), id, after.getId());
+        };
+    }
+
+    private <T extends Comparable<? super T>> Predicate seek(
+            CriteriaBuilder cb, Path<T> key, T value, Path<Long> id, long lastId) {
+        return cb.or(
+                cb.greaterThan(key, value),
+                cb.and(cb.equal(key, value), cb.greaterThan(id, lastId)));
+    }
+}
@@ -1,7 +1,26 @@
 package com.yuri.store.repositories;
 
+import com.yuri.store.dtos.LoyaltyPointsDto;
 import com.yuri.store.entities.Profile;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
 
+import java.util.Optional;
+import java.util.stream.Stream;
+
 public interface ProfileRepository extends CrudRepository<Profile, Long> {
+    @Query("SELECT COALESCE(p.loyaltyPoints, 0) FROM Profile p WHERE p.id = :id")
+    Optional<Integer> findLoyaltyPointsById(Long id);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT new com.yuri.store.dtos.LoyaltyPointsDto(p.id, CAST(COALESCE(p.loyaltyPoints, 0) AS long)) FROM Profile p")
+    Stream<LoyaltyPointsDto> streamLoyaltyPoints();
+
+    @Modifying
+    @Query("DELETE FROM Profile p WHERE p.id = :id")
+    int removeById(Long id);
 }
@@ -1,8 +1,125 @@
 package com.yuri.store.repositories;
 
+import com.yuri.store.dtos.UserDto;
+import com.yuri.store.dtos.WishlistEntry;
 import com.yuri.store.entities.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface UserRepository extends JpaRepository<User, Long> {
+    /**
+     * Read-only listing straight into DTOs, so passwords and collection proxies are never loaded.
+     */
+    @Transactional(readOnly = true)
+    @Query("SELECT new com.yuri.store.dtos.UserDto(u.id, u.name, u.email) FROM User u")
+    List<UserDto> findAllDtos(Sort sort);
+
+    boolean existsByEmail(String email);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT u.email FROM User u")
+    Stream<String> streamEmails();
+
+    @Query("SELECT u.version FROM User u WHERE u.id = :id")
+    Optional<Long> findVersionById(Long id);
+
+    @Transactional
+    @Modifying
+    @Query("""
+        UPDATE User u
+        SET u.name = :name, u.email = :email, u.version = u.version + 1
+        WHERE u.id = :id""")
+    int updateById(Long id, String name, String email);
+
+    /**
+     * {@link #updateById} followed by reading the new version back in the same transaction.
+     * Empty when the user does not exist.
+     */
+    @Transactional
+    default Optional<Long> updateAndGetVersion(Long id, String name, String email) {
+        return updateById(id, name, email) == 0 ? Optional.empty() : findVersionById(id);
+    }
+
+    /**
+     * Overwrites name and email only if the user is still at {@code version}. Returns 0 when the
+     * user is gone or was modified concurrently.
+     */
+    @Transactional
+    @Modifying
+    @Query("""
+        UPDATE User u
+        SET u.name = :name, u.email = :email, u.version = u.version + 1
+        WHERE u.id = :id AND u.version = :version""")
+    int updateIfVersion(Long id, Long version, String name, String email);
+
+    @Query("SELECT u.password FROM User u WHERE u.id = :id")
+    Optional<String> findPasswordById(Long id);
+
+    /**
+     * Replaces the stored hash only while it is still {@code currentPassword}, so a concurrent
+     * change is not silently overwritten. Returns 0 when the user is gone or the hash changed.
+     */
+    @Transactional
+    @Modifying
+    @Query("""
+        UPDATE User u
+        SET u.password = :newPassword, u.version = u.version + 1
+        WHERE u.id = :id AND u.password = :currentPassword""")
+    int updatePasswordIfUnchanged(Long id, String currentPassword, String newPassword);
+
+    /**
+     * Hibernate clears the user's wishlist rows before deleting; addresses must go first, see
+     * {@link com.yuri.store.services.UserAccountService#delete}.
+     */
+    @Modifying
+    @Query("DELETE FROM User u WHERE u.id = :id")
+    int removeById(Long id);
+
+    @Modifying
+    @Query("DELETE FROM User u WHERE u.id = :id AND u.version = :version")
+    int removeIfVersion(Long id, Long version);
+
+    /**
+     * Ids of the user's favorite products. A user without favorites yields a single {@code null}
+     * and an unknown user an empty list, so one query answers both.
+     */
+    @Transactional(readOnly = true)
+    @Query("SELECT p.id FROM User u LEFT JOIN u.favoriteProducts p WHERE u.id = :userId")
+    List<Long> findFavoriteProductIds(Long userId);
+
+    /**
+     * Returns 0 when the product does not exist or is already a favorite. Native statements must
+     * name the tables they touch, or Hibernate empties every second-level cache region.
+     */
+    @Transactional
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "wishlist"))
+    @Query(value = """
+        INSERT INTO wishlist (user_id, product_id)
+        SELECT :userId, p.id FROM products p
+        WHERE p.id = :productId
+          AND NOT EXISTS (SELECT 1 FROM wishlist w WHERE w.user_id = :userId AND w.product_id = :productId)""",
+        nativeQuery = true)
+    int addFavoriteProduct(Long userId, Long productId);
+
+    @Transactional
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "wishlist"))
+    @Query(value = "DELETE FROM wishlist WHERE user_id = :userId AND product_id = :productId", nativeQuery = true)
+    int removeFavoriteProduct(Long userId, Long productId);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT new com.yuri.store.dtos.WishlistEntry(u.id, p.id) FROM User u JOIN u.favoriteProducts p")
+    Stream<WishlistEntry> streamWishlistEntries();
 }
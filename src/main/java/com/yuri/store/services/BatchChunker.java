@@ -0,0 +1,87 @@
+package com.yuri.store.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.yuri.store.dtos.BatchItemResult;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Shared driver for the /batch endpoints: pulls rows one at a time from a JSON array or
+ * NDJSON body, rejects invalid ones up front and hands the rest to a writer in fixed-size
+ * chunks. Results keep the position of each row in the request body.
+ */
+@Slf4j
+final class BatchChunker {
+    record Row<T>(int index, T item) {
+    }
+
+    @FunctionalInterface
+    interface ChunkWriter<T> {
+        /**
+         * Writes the chunk and sets a result for every row in it.
+         */
+        void write(List<Row<T>> chunk, List<BatchItemResult> results);
+    }
+
+    private BatchChunker() {
+    }
+
+    static <T> List<BatchItemResult> process(
+            MappingIterator<T> rows,
+            int chunkSize,
+            Function<T, String> validator,
+            ChunkWriter<T> writer) throws IOException {
+        List<BatchItemResult> results = new ArrayList<>();
+        List<Row<T>> chunk = new ArrayList<>(chunkSize);
+
+        try (rows) {
+            while (true) {
+                var index = results.size();
+                T item;
+                try {
+                    if (!rows.hasNextValue()) {
+                        break;
+                    }
+                    item = rows.nextValue();
+                } catch (JsonProcessingException e) {
+                    results.add(BatchItemResult.failed(index, HttpStatus.BAD_REQUEST, "Malformed JSON: " + e.getOriginalMessage()));
+                    break;
+                }
+
+                var error = validator.apply(item);
+                if (error != null) {
+                    results.add(BatchItemResult.failed(index, HttpStatus.BAD_REQUEST, error));
+                    continue;
+                }
+
+                results.add(null);
+                chunk.add(new Row<>(index, item));
+                if (chunk.size() == chunkSize) {
+                    writer.write(chunk, results);
+                    chunk.clear();
+                }
+            }
+        }
+
+        if (!chunk.isEmpty()) {
+            writer.write(chunk, results);
+        }
+        return results;
+    }
+
+    /**
+     * The cause carries SQL, constraint names and driver text, so it is only logged; clients get
+     * a generic message.
+     */
+    static void failChunk(List<? extends Row<?>> chunk, List<BatchItemResult> results, Exception cause) {
+        log.error("Batch chunk of {} rows starting at index {} rolled back", chunk.size(), chunk.get(0).index(), cause);
+        chunk.forEach(row -> results.set(row.index(),
+                BatchItemResult.failed(row.index(), HttpStatus.INTERNAL_SERVER_ERROR, "Chunk rolled back")));
+    }
+}
@@ -0,0 +1,46 @@
+package com.yuri.store.services;
+
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Number of products per category, in a 256-slot array indexed by the unsigned TINYINT id.
+ * Only {@link ProductFacetIndex} writes it, always under its own write lock: it seeds the slots
+ * from its category bitmaps when a rebuild ends, and then moves a product between slots on each
+ * write, since it is the one that knows which category the product was in before. Seeding under
+ * that lock means no write can land between reading the counts and storing them. Reads never
+ * lock or touch the database.
+ */
+@Component
+public class CategoryProductCounts {
+    private static final int SLOTS = 256;
+
+    private final AtomicIntegerArray counts = new AtomicIntegerArray(SLOTS);
+
+    public int count(byte categoryId) {
+        return counts.get(Byte.toUnsignedInt(categoryId));
+    }
+
+    void seed(int[] perSlot) {
+        for (int i = 0; i < SLOTS; i++) {
+            counts.set(i, perSlot[i]);
+        }
+    }
+
+    /**
+     * Moves one product from slot {@code from} to slot {@code to}; either may be negative for
+     * "no category", which is not counted.
+     */
+    void move(int from, int to) {
+        if (from == to) {
+            return;
+        }
+        if (from >= 0) {
+            counts.decrementAndGet(from);
+        }
+        if (to >= 0) {
+            counts.incrementAndGet(to);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.yuri.store.services;
+
+import com.yuri.store.dtos.CategoryDto;
+import com.yuri.store.entities.Category;
+import com.yuri.store.events.CategoryChangedEvent;
+import com.yuri.store.repositories.CategoryRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * In-memory copy of the categories table. Category ids are TINYINT, so every category
+ * fits in a fixed 256-slot array indexed by the unsigned id and lookups never hit the DB.
+ * The registry is loaded at startup and kept current from committed {@link CategoryChangedEvent}s.
+ */
+@Component
+public class CategoryRegistry {
+    private static final int SLOTS = 256;
+
+    private final CategoryRepository categoryRepository;
+    private final AtomicReferenceArray<Slot> slots = new AtomicReferenceArray<>(SLOTS);
+
+    public CategoryRegistry(CategoryRepository categoryRepository) {
+        this.categoryRepository = categoryRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void refresh() {
+        for (int i = 0; i < SLOTS; i++) {
+            slots.set(i, null);
+        }
+        categoryRepository.findAll().forEach(this::register);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        if (event.getType() == CategoryChangedEvent.Type.DELETED) {
+            unregister(event.getCategoryId());
+        } else {
+            var category = new Category(event.getName());
+            category.setId(event.getCategoryId());
+            register(category);
+        }
+    }
+
+    /**
+     * Returns a detached copy of the category, or {@code null} if it does not exist.
+     */
+    public Category find(byte id) {
+        var slot = slots.get(Byte.toUnsignedInt(id));
+        return slot == null ? null : slot.category();
+    }
+
+    /**
+     * Returns the shared DTO of a registered category, or {@code null} if it does not exist.
+     */
+    public CategoryDto findDto(Byte id) {
+        if (id == null) {
+            return null;
+        }
+        var slot = slots.get(Byte.toUnsignedInt(id));
+        return slot == null ? null : slot.dto();
+    }
+
+    /**
+     * Shared DTOs of every registered category, by id.
+     */
+    public List<CategoryDto> findAllDtos() {
+        List<CategoryDto> categories = new ArrayList<>();
+        for (int i = 0; i < SLOTS; i++) {
+            var slot = slots.get(i);
+            if (slot != null) {
+                categories.add(slot.dto());
+            }
+        }
+        return categories;
+    }
+
+    public CategoryDto toDto(Category category) {
+        if (category == null || category.getId() == null) {
+            return null;
+        }
+        var slot = slots.get(Byte.toUnsignedInt(category.getId()));
+        if (slot == null) {
+            return new CategoryDto(category.getId(), category.getName());
+        }
+        return slot.dto();
+    }
+
+    void register(Category category) {
+        var copy = new Category(category.getName());
+        copy.setId(category.getId());
+        var dto = new CategoryDto(category.getId(), category.getName());
+        slots.set(Byte.toUnsignedInt(category.getId()), new Slot(copy, dto));
+    }
+
+    void unregister(Byte id) {
+        slots.set(Byte.toUnsignedInt(id), null);
+    }
+
+    private record Slot(Category category, CategoryDto dto) {
+    }
+}
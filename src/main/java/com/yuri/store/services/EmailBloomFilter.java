@@ -0,0 +1,241 @@
+package com.yuri.store.services;
+
+import com.yuri.store.events.UserDeletedEvent;
+import com.yuri.store.repositories.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bloom filter over registered emails, so most sign-ups learn that their email is free without a
+ * query; only a "maybe" is confirmed against {@code users}. A plain Bloom filter cannot forget, and
+ * renames and deletions are set-based statements that never see the old email, so those entries
+ * just go stale. Stale entries only cost false positives; once they pass
+ * {@code max-stale-ratio} of the filter it is rebuilt from the table, sized for the current user
+ * count. Lookups are counted in {@code store.users.email-filter.lookups} tagged by result, next
+ * to gauges for the memory used and the false-positive rate the current fill predicts.
+ */
+@Component
+public class EmailBloomFilter {
+    private final UserRepository userRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final long expectedInsertions;
+    private final double falsePositiveRate;
+    private final double maxStaleRatio;
+
+    private volatile Bits current;
+    private volatile Bits next;
+    private final AtomicLong stale = new AtomicLong();
+
+    private final Counter definitelyAbsent;
+    private final Counter falsePositives;
+    private final Counter present;
+
+    public EmailBloomFilter(
+            UserRepository userRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${store.users.email-filter.expected-insertions:1000000}") long expectedInsertions,
+            @Value("${store.users.email-filter.false-positive-rate:0.01}") double falsePositiveRate,
+            @Value("${store.users.email-filter.max-stale-ratio:0.2}") double maxStaleRatio,
+            MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.expectedInsertions = expectedInsertions;
+        this.falsePositiveRate = falsePositiveRate;
+        this.maxStaleRatio = maxStaleRatio;
+        this.current = new Bits(expectedInsertions, falsePositiveRate);
+
+        Gauge.builder("store.users.email-filter.memory", this, filter -> filter.current.sizeInBytes())
+                .baseUnit("bytes")
+                .description("Memory used by the registered-email Bloom filter")
+                .register(meterRegistry);
+        Gauge.builder("store.users.email-filter.expected-fpp", this, filter -> filter.current.expectedFalsePositiveRate())
+                .description("False-positive rate predicted from the share of bits set")
+                .register(meterRegistry);
+        this.definitelyAbsent = lookups(meterRegistry, "definitely-absent");
+        this.falsePositives = lookups(meterRegistry, "false-positive");
+        this.present = lookups(meterRegistry, "present");
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        var count = Math.max(expectedInsertions, 2 * userRepository.count());
+        // Emails registered while the table is being read go into both filters, see add().
+        var rebuilt = new Bits(count, falsePositiveRate);
+        next = rebuilt;
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try (var emails = userRepository.streamEmails()) {
+                emails.forEach(email -> rebuilt.put(normalize(email)));
+            }
+        });
+        current = rebuilt;
+        next = null;
+        stale.set(0);
+    }
+
+    @Scheduled(fixedDelayString = "${store.users.email-filter.check-interval:5m}")
+    public void rebuildIfStale() {
+        var entries = current.insertions();
+        if (entries > 0 && stale.get() > maxStaleRatio * entries) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Whether a user already has this email. A miss in the filter is final; a hit is
+     * confirmed with a query.
+     */
+    public boolean isTaken(String email) {
+        if (email == null) {
+            return false;
+        }
+        if (!current.mightContain(normalize(email))) {
+            definitelyAbsent.increment();
+            return false;
+        }
+        if (userRepository.existsByEmail(email)) {
+            present.increment();
+            return true;
+        }
+        falsePositives.increment();
+        return false;
+    }
+
+    /**
+     * Records an email that is now registered. Call after the write is committed.
+     */
+    public void put(String email) {
+        if (email != null) {
+            add(normalize(email));
+        }
+    }
+
+    /**
+     * Records the email a user switched to. The old email cannot be removed and counts as stale,
+     * unless the filter already held the new one (typically an unchanged email).
+     */
+    public void renamed(String email) {
+        if (email != null && add(normalize(email))) {
+            stale.incrementAndGet();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserDeleted(UserDeletedEvent event) {
+        stale.incrementAndGet();
+    }
+
+    private boolean add(String key) {
+        var added = current.put(key);
+        var rebuilding = next;
+        if (rebuilding != null) {
+            rebuilding.put(key);
+        }
+        return added;
+    }
+
+    private static Counter lookups(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("store.users.email-filter.lookups")
+                .description("Email-taken checks by outcome")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    // MySQL compares emails case-insensitively, so the filter must not tell case variants apart.
+    static String normalize(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static final class Bits {
+        private final AtomicLongArray words;
+        private final long size;
+        private final int hashes;
+        private final AtomicLong bitsSet = new AtomicLong();
+        private final AtomicLong insertions = new AtomicLong();
+
+        Bits(long expectedInsertions, double falsePositiveRate) {
+            var n = Math.max(1, expectedInsertions);
+            var bits = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+            this.words = new AtomicLongArray(Math.toIntExact((bits + 63) / 64));
+            this.size = words.length() * 64L;
+            this.hashes = Math.max(1, (int) Math.round((double) size / n * Math.log(2)));
+        }
+
+        /**
+         * Returns whether any bit changed, i.e. the key was certainly not in the filter before.
+         */
+        boolean put(String key) {
+            var h1 = hash(key);
+            var h2 = fmix64(h1 ^ 0x9E3779B97F4A7C15L);
+            var changed = false;
+            for (int i = 0; i < hashes; i++) {
+                var bit = Math.floorMod(h1 + i * h2, size);
+                var mask = 1L << bit;
+                var previous = words.getAndUpdate((int) (bit >>> 6), word -> word | mask);
+                if ((previous & mask) == 0) {
+                    bitsSet.incrementAndGet();
+                    changed = true;
+                }
+            }
+            if (changed) {
+                insertions.incrementAndGet();
+            }
+            return changed;
+        }
+
+        boolean mightContain(String key) {
+            var h1 = hash(key);
+            var h2 = fmix64(h1 ^ 0x9E3779B97F4A7C15L);
+            for (int i = 0; i < hashes; i++) {
+                var bit = Math.floorMod(h1 + i * h2, size);
+                if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        long insertions() {
+            return insertions.get();
+        }
+
+        long sizeInBytes() {
+            return size / 8;
+        }
+
+        double expectedFalsePositiveRate() {
+            return Math.pow((double) bitsSet.get() / size, hashes);
+        }
+
+        private static long hash(String key) {
+            long h = 0xCBF29CE484222325L;
+            for (var b : key.getBytes(StandardCharsets.UTF_8)) {
+                h = (h ^ (b & 0xFF)) * 0x100000001B3L;
+            }
+            return fmix64(h);
+        }
+
+        private static long fmix64(long h) {
+            h ^= h >>> 33;
+            h *= 0xFF51AFD7ED558CCDL;
+            h ^= h >>> 33;
+            h *= 0xC4CEB93FE1A85EC5L;
+            h ^= h >>> 33;
+            return h;
+        }
+    }
+}
@@ -0,0 +1,297 @@
+package com.yuri.store.services;
+
+import com.yuri.store.dtos.LeaderboardEntryDto;
+import com.yuri.store.events.LoyaltyPointsChangedEvent;
+import com.yuri.store.events.UserDeletedEvent;
+import com.yuri.store.repositories.ProfileRepository;
+import it.unimi.dsi.fastutil.longs.Long2LongOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Profiles ordered by loyalty points, highest first and by user id on ties. The order lives in
+ * a treap whose nodes count their subtree, so updates, the rank of a user and the start of the
+ * top-N walk are all O(log n). A skip list would give the order but not the rank without
+ * walking every entry ahead of the user. Seeded from {@code profiles} at startup and then kept
+ * current from {@link LoyaltyPointsChangedEvent}s, so it trails the database by at most one flush.
+ * A rebuild streams into a new treap with loyalty flushes held off, since a flush delta cannot be
+ * told apart from a balance the stream already read, and replaces the live one once complete.
+ */
+@Component
+public class LoyaltyLeaderboard {
+    private static final long ABSENT = -1;
+
+    private final ProfileRepository profileRepository;
+    private final LoyaltyPointsAccumulator loyaltyPointsAccumulator;
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private Ranking ranking = new Ranking();
+    // Users deleted since the running rebuild started; null when none is running.
+    private LongOpenHashSet deletedDuringRebuild;
+
+    public LoyaltyLeaderboard(
+            ProfileRepository profileRepository,
+            LoyaltyPointsAccumulator loyaltyPointsAccumulator,
+            PlatformTransactionManager transactionManager) {
+        this.profileRepository = profileRepository;
+        this.loyaltyPointsAccumulator = loyaltyPointsAccumulator;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        loyaltyPointsAccumulator.withoutFlushing(() -> {
+            lock.writeLock().lock();
+            try {
+                deletedDuringRebuild = new LongOpenHashSet();
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            var fresh = new Ranking();
+            try {
+                readOnlyTransaction.executeWithoutResult(status -> {
+                    try (var profiles = profileRepository.streamLoyaltyPoints()) {
+                        profiles.forEach(profile -> fresh.put(profile.getUserId(), profile.getPoints()));
+                    }
+                });
+            } catch (RuntimeException e) {
+                lock.writeLock().lock();
+                try {
+                    deletedDuringRebuild = null;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                throw e;
+            }
+
+            lock.writeLock().lock();
+            try {
+                // The stream may have read these profiles before their user was deleted.
+                deletedDuringRebuild.forEach(fresh::remove);
+                ranking = fresh;
+                deletedDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLoyaltyPointsChanged(LoyaltyPointsChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            event.getDeltas().forEach((userId, delta) -> {
+                var current = ranking.pointsByUser.get(userId.longValue());
+                ranking.put(userId, (current == ABSENT ? 0 : current) + delta);
+            });
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserDeleted(UserDeletedEvent event) {
+        remove(event.getUserId());
+    }
+
+    public void put(long userId, long points) {
+        lock.writeLock().lock();
+        try {
+            ranking.put(userId, points);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long userId) {
+        lock.writeLock().lock();
+        try {
+            ranking.remove(userId);
+            if (deletedDuringRebuild != null) {
+                deletedDuringRebuild.add(userId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * The first {@code limit} entries, ranked from 1.
+     */
+    public List<LeaderboardEntryDto> top(int limit) {
+        lock.readLock().lock();
+        try {
+            List<LeaderboardEntryDto> entries = new ArrayList<>(Math.min(limit, size(ranking.root)));
+            var path = new ArrayDeque<Node>();
+            var node = ranking.root;
+            while ((node != null || !path.isEmpty()) && entries.size() < limit) {
+                while (node != null) {
+                    path.push(node);
+                    node = node.left;
+                }
+                node = path.pop();
+                entries.add(new LeaderboardEntryDto(entries.size() + 1, node.userId, node.points));
+                node = node.right;
+            }
+            return entries;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * The user's entry, or {@code null} when the user has no profile.
+     */
+    public LeaderboardEntryDto rankOf(long userId) {
+        lock.readLock().lock();
+        try {
+            var points = ranking.pointsByUser.get(userId);
+            if (points == ABSENT) {
+                return null;
+            }
+            long ahead = 0;
+            var node = ranking.root;
+            while (node != null) {
+                if (precedes(points, userId, node.points, node.userId)) {
+                    node = node.left;
+                } else {
+                    ahead += size(node.left);
+                    if (node.userId == userId) {
+                        break;
+                    }
+                    ahead++;
+                    node = node.right;
+                }
+            }
+            return new LeaderboardEntryDto(ahead + 1, userId, points);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Splits into the entries ranked before (points, userId) and the rest.
+     */
+    private static Node[] split(Node node, long points, long userId) {
+        if (node == null) {
+            return new Node[2];
+        }
+        if (precedes(node.points, node.userId, points, userId)) {
+            var halves = split(node.right, points, userId);
+            node.right = halves[0];
+            node.update();
+            halves[0] = node;
+            return halves;
+        }
+        var halves = split(node.left, points, userId);
+        node.left = halves[1];
+        node.update();
+        halves[1] = node;
+        return halves;
+    }
+
+    private static Node merge(Node left, Node right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            left.update();
+            return left;
+        }
+        right.left = merge(left, right.left);
+        right.update();
+        return right;
+    }
+
+    private static Node delete(Node node, long points, long userId) {
+        if (node == null) {
+            return null;
+        }
+        if (node.userId == userId) {
+            return merge(node.left, node.right);
+        }
+        if (precedes(points, userId, node.points, node.userId)) {
+            node.left = delete(node.left, points, userId);
+        } else {
+            node.right = delete(node.right, points, userId);
+        }
+        node.update();
+        return node;
+    }
+
+    private static boolean precedes(long points, long userId, long otherPoints, long otherUserId) {
+        return points > otherPoints || (points == otherPoints && userId < otherUserId);
+    }
+
+    private static int size(Node node) {
+        return node == null ? 0 : node.size;
+    }
+
+    /**
+     * The treap and the points it is keyed by; not thread-safe, callers hold the write lock or
+     * own the instance.
+     */
+    private static final class Ranking {
+        private final Long2LongOpenHashMap pointsByUser = new Long2LongOpenHashMap();
+        private final SplittableRandom priorities = new SplittableRandom();
+        private Node root;
+
+        Ranking() {
+            pointsByUser.defaultReturnValue(ABSENT);
+        }
+
+        void put(long userId, long points) {
+            var previous = pointsByUser.put(userId, points);
+            if (previous != ABSENT) {
+                root = delete(root, previous, userId);
+            }
+            var node = new Node(userId, points, priorities.nextInt());
+            var halves = split(root, points, userId);
+            root = merge(merge(halves[0], node), halves[1]);
+        }
+
+        void remove(long userId) {
+            var points = pointsByUser.remove(userId);
+            if (points != ABSENT) {
+                root = delete(root, points, userId);
+            }
+        }
+    }
+
+    private static final class Node {
+        private final long userId;
+        private final long points;
+        private final int priority;
+        private int size = 1;
+        private Node left;
+        private Node right;
+
+        Node(long userId, long points, int priority) {
+            this.userId = userId;
+            this.points = points;
+            this.priority = priority;
+        }
+
+        void update() {
+            size = 1 + size(left) + size(right);
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package com.yuri.store.services;
+
+import com.yuri.store.events.LoyaltyPointsChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Write-behind loyalty points. Awards only add to a per-user {@link LongAdder}, so hot users
+ * never contend on their {@code profiles} row; a scheduled flush moves the accumulated deltas
+ * to the database in one batch of relative UPDATEs every {@code store.loyalty.flush-interval},
+ * which bounds how stale the stored balance can be. Deltas being written stay visible through
+ * {@link #pending} until their transaction has ended. Pending deltas are flushed once more on
+ * shutdown and published as {@code store.loyalty.pending.*}. Awards and each user's pending total
+ * are capped, and a batch the database rejects is retried row by row, so one user whose balance
+ * no longer fits {@code loyalty_points} cannot hold back everybody else's points.
+ */
+@Slf4j
+@Service
+public class LoyaltyPointsAccumulator {
+    private static final String ADD_POINTS =
+            "UPDATE profiles SET loyalty_points = COALESCE(loyalty_points, 0) + ? WHERE id = ?";
+    // Users without a profile get one; unknown users match no row and their points are dropped.
+    private static final String CREATE_PROFILE =
+            "INSERT INTO profiles (id, loyalty_points) SELECT u.id, ? FROM users u WHERE u.id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int maxPointsPerAward;
+    private final long maxPendingPoints;
+    private final ConcurrentHashMap<Long, LongAdder> pending = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, Long> inFlight = new ConcurrentHashMap<>();
+    private final Counter flushedPoints;
+    private final Counter failedFlushes;
+    private final Counter rejectedPoints;
+    private final Counter droppedPoints;
+
+    public LoyaltyPointsAccumulator(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            ApplicationEventPublisher eventPublisher,
+            @Value("${store.loyalty.max-points-per-award:100000}") int maxPointsPerAward,
+            @Value("${store.loyalty.max-pending-points:10000000}") long maxPendingPoints,
+            MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.maxPointsPerAward = maxPointsPerAward;
+        this.maxPendingPoints = maxPendingPoints;
+        Gauge.builder("store.loyalty.pending.users", pending, ConcurrentHashMap::size)
+                .description("Users with loyalty points not yet written to the database")
+                .register(meterRegistry);
+        Gauge.builder("store.loyalty.pending.points", this, LoyaltyPointsAccumulator::pendingPoints)
+                .description("Loyalty points not yet written to the database")
+                .register(meterRegistry);
+        this.flushedPoints = Counter.builder("store.loyalty.flushed.points")
+                .description("Loyalty points written to the database")
+                .register(meterRegistry);
+        this.failedFlushes = Counter.builder("store.loyalty.flush.failures")
+                .description("Flushes whose batch failed and was retried row by row")
+                .register(meterRegistry);
+        this.rejectedPoints = Counter.builder("store.loyalty.rejected.points")
+                .description("Loyalty points set aside because the database rejected their row")
+                .register(meterRegistry);
+        this.droppedPoints = Counter.builder("store.loyalty.dropped.points")
+                .description("Loyalty points dropped because their user does not exist")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns {@code false}, adding nothing, when {@code points} is over the per-award cap or
+     * would take the user's pending total over its cap. Concurrent awards can overshoot the
+     * pending cap by a few awards at most.
+     */
+    public boolean award(Long userId, int points) {
+        if (points <= 0) {
+            throw new IllegalArgumentException("points must be positive");
+        }
+        if (points > maxPointsPerAward) {
+            return false;
+        }
+        while (true) {
+            var adder = pending.computeIfAbsent(userId, k -> new LongAdder());
+            if (adder.sum() + points > maxPendingPoints) {
+                return false;
+            }
+            adder.add(points);
+            // A flush only retires an adder it saw at zero, so if ours is still mapped the
+            // points are counted; otherwise they went to a retired adder and must be re-added.
+            if (pending.get(userId) == adder) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Points awarded to the user that are not in the stored balance yet, including those a
+     * running flush has not committed.
+     */
+    public long pending(Long userId) {
+        var adder = pending.get(userId);
+        return (adder == null ? 0 : adder.sum()) + inFlight.getOrDefault(userId, 0L);
+    }
+
+    /**
+     * Runs {@code action} while no flush can start, for readers that need the stored balances
+     * to hold still.
+     */
+    public synchronized void withoutFlushing(Runnable action) {
+        action.run();
+    }
+
+    @Scheduled(fixedDelayString = "${store.loyalty.flush-interval:1s}")
+    public void scheduledFlush() {
+        flush();
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    /**
+     * Writes every pending delta in one transaction. If that fails, each row is retried in its
+     * own transaction: rows the database rejects (e.g. a balance out of range) are logged and set
+     * aside, and at the first other failure the remaining deltas are added back, so they go out
+     * with the next flush instead of being lost.
+     */
+    public synchronized void flush() {
+        List<Object[]> deltas = new ArrayList<>();
+        pending.forEach((userId, adder) -> {
+            var delta = adder.sum();
+            if (delta > 0) {
+                // Moved to inFlight before leaving the adder, so readers never miss it.
+                inFlight.put(userId, delta);
+                adder.add(-delta);
+                deltas.add(new Object[]{delta, userId});
+            } else {
+                pending.computeIfPresent(userId, (key, current) -> current.sum() == 0 ? null : current);
+            }
+        });
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        Map<Long, Long> written;
+        try {
+            written = transactionTemplate.execute(status -> write(deltas));
+            countDropped(deltas, written);
+        } catch (DataAccessException | TransactionException e) {
+            log.warn("Loyalty points flush failed, retrying {} users one by one", deltas.size(), e);
+            failedFlushes.increment();
+            written = writeOneByOne(deltas);
+        } finally {
+            deltas.forEach(delta -> inFlight.remove((Long) delta[1]));
+        }
+
+        flushedPoints.increment(written.values().stream().mapToLong(Long::longValue).sum());
+        if (!written.isEmpty()) {
+            eventPublisher.publishEvent(new LoyaltyPointsChangedEvent(written));
+        }
+    }
+
+    private Map<Long, Long> writeOneByOne(List<Object[]> deltas) {
+        Map<Long, Long> written = new HashMap<>();
+        for (int i = 0; i < deltas.size(); i++) {
+            var delta = deltas.get(i);
+            try {
+                var row = transactionTemplate.execute(status -> write(List.<Object[]>of(delta)));
+                countDropped(List.<Object[]>of(delta), row);
+                written.putAll(row);
+            } catch (DataIntegrityViolationException e) {
+                log.error("Setting aside {} loyalty points for user {}, rejected by the database", delta[0], delta[1], e);
+                rejectedPoints.increment((Long) delta[0]);
+            } catch (DataAccessException | TransactionException e) {
+                // Not about this row; the database is likely unavailable, so stop trying for now.
+                deltas.subList(i, deltas.size()).forEach(remaining ->
+                        pending.computeIfAbsent((Long) remaining[1], k -> new LongAdder()).add((Long) remaining[0]));
+                break;
+            }
+        }
+        return written;
+    }
+
+    /**
+     * Returns the delta written per user; users without a profile row get one.
+     */
+    private Map<Long, Long> write(List<Object[]> deltas) {
+        Map<Long, Long> written = new HashMap<>();
+        var updated = jdbcTemplate.batchUpdate(ADD_POINTS, deltas);
+        List<Object[]> missing = new ArrayList<>();
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) {
+                missing.add(deltas.get(i));
+            } else {
+                written.put((Long) deltas.get(i)[1], (Long) deltas.get(i)[0]);
+            }
+        }
+        if (!missing.isEmpty()) {
+            var created = jdbcTemplate.batchUpdate(CREATE_PROFILE, missing);
+            for (int i = 0; i < created.length; i++) {
+                if (created[i] != 0) {
+                    written.put((Long) missing.get(i)[1], (Long) missing.get(i)[0]);
+                }
+            }
+        }
+        return written;
+    }
+
+    private void countDropped(List<Object[]> deltas, Map<Long, Long> written) {
+        for (var delta : deltas) {
+            if (!written.containsKey((Long) delta[1])) {
+                log.debug("Dropping {} loyalty points for unknown user {}", delta[0], delta[1]);
+                droppedPoints.increment((Long) delta[0]);
+            }
+        }
+    }
+
+    private double pendingPoints() {
+        return pending.values().stream().mapToLong(LongAdder::sum).sum()
+                + inFlight.values().stream().mapToLong(Long::longValue).sum();
+    }
+}
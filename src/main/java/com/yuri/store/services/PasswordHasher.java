@@ -0,0 +1,171 @@
+package com.yuri.store.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.NoOpPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Password hashing and verification on a small dedicated pool. A BCrypt round costs tens of
+ * milliseconds of CPU, so running it on request threads would let a burst of sign-ups or password
+ * changes take the cores the catalog endpoints need. The pool has a bounded queue; work that
+ * does not fit, or does not finish within {@code timeout}, fails with
+ * {@link RejectedExecutionException}, which the controllers answer with 503. Batch imports hash
+ * a whole chunk with {@link #encodeAll}, which keeps every pool thread busy but never more tasks
+ * in flight than threads, so interactive callers still find room in the queue.
+ *
+ * <p>Hashes are stored as {@code {bcrypt}...}. Rows written before hashing hold the plain
+ * password without a prefix and still verify; they are rehashed on the next password change.
+ */
+@Component
+public class PasswordHasher {
+    private final PasswordEncoder encoder;
+    private final ThreadPoolExecutor executor;
+    private final int poolSize;
+    private final long timeoutNanos;
+    private final long batchTimeoutNanos;
+    private final Counter rejected;
+
+    public PasswordHasher(
+            @Value("${store.passwords.bcrypt-strength:10}") int strength,
+            @Value("${store.passwords.threads:0}") int threads,
+            @Value("${store.passwords.queue-capacity:64}") int queueCapacity,
+            @Value("${store.passwords.timeout:2s}") Duration timeout,
+            @Value("${store.passwords.batch-timeout:60s}") Duration batchTimeout,
+            MeterRegistry meterRegistry) {
+        this.encoder = encoder(strength);
+        this.poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                Thread.ofPlatform().name("password-hasher-", 0).daemon().factory());
+        this.timeoutNanos = timeout.toNanos();
+        this.batchTimeoutNanos = batchTimeout.toNanos();
+        this.rejected = Counter.builder("store.passwords.rejected")
+                .description("Password hashes refused because the pool was saturated or too slow")
+                .register(meterRegistry);
+        new ExecutorServiceMetrics(executor, "password-hasher", Tags.empty()).bindTo(meterRegistry);
+    }
+
+    /**
+     * The hash to store for {@code rawPassword}; {@code null} stays {@code null}.
+     */
+    public String encode(String rawPassword) {
+        if (rawPassword == null) {
+            return null;
+        }
+        return call(() -> encoder.encode(rawPassword));
+    }
+
+    /**
+     * Hashes {@code rawPasswords} in parallel within {@code batch-timeout}. Hashes that did not
+     * finish in time, or could not be submitted because other callers filled the pool, are
+     * {@code null} in the result.
+     */
+    public String[] encodeAll(List<String> rawPasswords) {
+        var deadline = System.nanoTime() + batchTimeoutNanos;
+        var hashes = new String[rawPasswords.size()];
+        var completion = new ExecutorCompletionService<String>(executor);
+        Map<Future<String>, Integer> inFlight = new HashMap<>();
+        var next = 0;
+        try {
+            while (next < hashes.length || !inFlight.isEmpty()) {
+                while (next < hashes.length && inFlight.size() < poolSize) {
+                    var rawPassword = rawPasswords.get(next);
+                    try {
+                        inFlight.put(completion.submit(() -> encoder.encode(rawPassword)), next);
+                    } catch (RejectedExecutionException e) {
+                        break;
+                    }
+                    next++;
+                }
+                if (inFlight.isEmpty()) {
+                    break;
+                }
+
+                var done = completion.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                if (done == null) {
+                    break;
+                }
+                var index = inFlight.remove(done);
+                try {
+                    hashes[index] = done.get();
+                } catch (ExecutionException e) {
+                    // Left null; the caller reports the row as failed.
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        inFlight.keySet().forEach(future -> future.cancel(true));
+        rejected.increment(inFlight.size() + hashes.length - next);
+        return hashes;
+    }
+
+    public boolean matches(String rawPassword, String storedPassword) {
+        return call(() -> encoder.matches(rawPassword, storedPassword));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private <T> T call(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw e;
+        }
+
+        try {
+            return future.get(timeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            rejected.increment();
+            throw new RejectedExecutionException("Password hashing timed out", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            throw new RejectedExecutionException("Interrupted while waiting for password hashing", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    @SuppressWarnings("deprecation")
+    private static PasswordEncoder encoder(int strength) {
+        var plain = NoOpPasswordEncoder.getInstance();
+        var encoder = new DelegatingPasswordEncoder("bcrypt", Map.of(
+                "bcrypt", new BCryptPasswordEncoder(strength),
+                "noop", plain));
+        encoder.setDefaultPasswordEncoderForMatches(plain);
+        return encoder;
+    }
+}
@@ -0,0 +1,92 @@
+package com.yuri.store.services;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yuri.store.dtos.BatchItemResult;
+import com.yuri.store.dtos.ProductDto;
+import com.yuri.store.entities.Product;
+import com.yuri.store.mappers.ProductMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bulk product ingestion. Rows are parsed one at a time from a JSON array or NDJSON body,
+ * validated against the in-memory {@link CategoryRegistry} and inserted in chunks, one
+ * transaction per chunk, so Hibernate can send each chunk as JDBC batches.
+ */
+@Service
+public class ProductBatchService {
+    private final ProductMapper productMapper;
+    private final CategoryRegistry categoryRegistry;
+    private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+
+    public ProductBatchService(
+            ProductMapper productMapper,
+            CategoryRegistry categoryRegistry,
+            ObjectMapper objectMapper,
+            EntityManager entityManager,
+            TransactionTemplate transactionTemplate,
+            @Value("${store.batch.chunk-size:1000}") int chunkSize) {
+        this.productMapper = productMapper;
+        this.categoryRegistry = categoryRegistry;
+        this.objectMapper = objectMapper;
+        this.entityManager = entityManager;
+        this.transactionTemplate = transactionTemplate;
+        this.chunkSize = chunkSize;
+    }
+
+    public List<BatchItemResult> createAll(InputStream body) throws IOException {
+        MappingIterator<ProductDto> rows = objectMapper.readerFor(ProductDto.class).readValues(body);
+        return BatchChunker.process(rows, chunkSize, this::validate, this::insertChunk);
+    }
+
+    private String validate(ProductDto productDto) {
+        if (productDto.getName() == null || productDto.getPrice() == null || productDto.getDescription() == null) {
+            return "Name, price and description are required";
+        }
+        if (productDto.getCategoryId() == null || categoryRegistry.find(productDto.getCategoryId()) == null) {
+            return "Unknown category";
+        }
+        return null;
+    }
+
+    private void insertChunk(List<BatchChunker.Row<ProductDto>> chunk, List<BatchItemResult> results) {
+        List<Product> products = new ArrayList<>(chunk.size());
+        for (var row : chunk) {
+            var product = productMapper.toEntity(row.item());
+            product.setId(null);
+            product.setCategory(categoryRegistry.find(row.item().getCategoryId()));
+            products.add(product);
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                products.forEach(entityManager::persist);
+                entityManager.flush();
+                entityManager.clear();
+            });
+        } catch (DataAccessException | PersistenceException | TransactionException e) {
+            BatchChunker.failChunk(chunk, results, e);
+            return;
+        }
+
+        for (int i = 0; i < chunk.size(); i++) {
+            var index = chunk.get(i).index();
+            results.set(index, BatchItemResult.ok(index, HttpStatus.CREATED, products.get(i).getId()));
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.yuri.store.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.yuri.store.dtos.ProductDto;
+import com.yuri.store.events.CategoryChangedEvent;
+import com.yuri.store.events.ProductChangedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Bounded read-through cache of product details. Hit, miss and eviction counters are
+ * published as the {@code cache.*} metrics tagged {@code cache=products}. This is the product
+ * read cache; {@code Product} is kept out of the Hibernate second-level cache because its
+ * writes are bulk JPQL statements, which would empty the whole entity region each time.
+ */
+@Component
+public class ProductCache {
+    private final Cache<Long, ProductDto> cache;
+
+    public ProductCache(
+            @Value("${store.cache.products.maximum-size:10000}") long maximumSize,
+            @Value("${store.cache.products.ttl:10m}") Duration ttl,
+            MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "products");
+    }
+
+    /**
+     * Returns the cached product, loading it on a miss. Missing products are not cached.
+     */
+    public ProductDto get(Long id, Function<Long, ProductDto> loader) {
+        return cache.get(id, loader);
+    }
+
+    public ProductDto getIfPresent(Long id) {
+        return cache.getIfPresent(id);
+    }
+
+    public void evict(Long id) {
+        cache.invalidate(id);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        evict(event.getProductId());
+    }
+
+    /**
+     * Cached products carry their category name, and which of them belong to the category is not
+     * tracked, so any category write drops them all.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        cache.invalidateAll();
+    }
+}
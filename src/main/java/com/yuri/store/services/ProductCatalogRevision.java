@@ -0,0 +1,33 @@
+package com.yuri.store.services;
+
+import com.yuri.store.events.CategoryChangedEvent;
+import com.yuri.store.events.ProductChangedEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts committed product and category writes so catalog listings can be tagged without
+ * querying; listings embed category names, so a rename is a catalog change too. The
+ * start time is part of the tag so revisions handed out before a restart never match again.
+ */
+@Component
+public class ProductCatalogRevision {
+    private final String epoch = Long.toHexString(System.currentTimeMillis());
+    private final AtomicLong revision = new AtomicLong();
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        revision.incrementAndGet();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        revision.incrementAndGet();
+    }
+
+    public String etag() {
+        return "\"" + epoch + "-" + revision.get() + "\"";
+    }
+}
@@ -0,0 +1,54 @@
+package com.yuri.store.services;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.yuri.store.dtos.ProductDto;
+import com.yuri.store.mappers.ProductMapper;
+import com.yuri.store.repositories.ProductRepository;
+import jakarta.persistence.EntityManager;
+import lombok.AllArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+@AllArgsConstructor
+@Service
+public class ProductExportService {
+    private static final int FLUSH_EVERY = 1000;
+
+    private final ProductRepository productRepository;
+    private final ProductMapper productMapper;
+    private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
+
+    /**
+     * Writes the whole catalog as newline-delimited JSON. Rows are read through a
+     * cursor and detached once written, so memory use does not depend on catalog size.
+     */
+    @Transactional(readOnly = true)
+    public void exportNdjson(OutputStream out) throws IOException {
+        var writer = objectMapper.writerFor(ProductDto.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+        try (var generator = objectMapper.getFactory().createGenerator(out);
+             var products = productRepository.streamAllWithCategory()) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+
+            var written = 0;
+            for (var iterator = products.iterator(); iterator.hasNext(); ) {
+                var product = iterator.next();
+                writer.writeValue(generator, productMapper.toDto(product));
+                generator.writeRaw('\n');
+                entityManager.detach(product);
+
+                if (++written % FLUSH_EVERY == 0) {
+                    generator.flush();
+                }
+            }
+        }
+    }
+}
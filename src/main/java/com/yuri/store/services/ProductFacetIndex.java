@@ -0,0 +1,339 @@
+package com.yuri.store.services;
+
+import com.yuri.store.dtos.CategoryFacetDto;
+import com.yuri.store.dtos.PriceBucketFacetDto;
+import com.yuri.store.dtos.ProductDto;
+import com.yuri.store.dtos.ProductFacetsDto;
+import com.yuri.store.dtos.ProductPricePoint;
+import com.yuri.store.events.ProductChangedEvent;
+import com.yuri.store.repositories.ProductRepository;
+import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
+import it.unimi.dsi.fastutil.ints.Int2LongOpenHashMap;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Bitmap index over product ids with one bitmap per category and one per price bucket.
+ * Catalog filters and facet counts are answered with bitmap unions and intersections
+ * instead of count queries. Built at startup and kept current from {@link ProductChangedEvent}s,
+ * which it also passes on to {@link CategoryProductCounts} as moves between categories.
+ * Bitmaps hold 32-bit ids, so products with an id above {@link Integer#MAX_VALUE} are
+ * logged and left out of the index.
+ */
+@Slf4j
+@Component
+public class ProductFacetIndex {
+    private static final int CATEGORY_SLOTS = 256;
+    private static final int NO_CATEGORY = -1;
+    private static final BigDecimal MIN_CENTS = BigDecimal.valueOf(Long.MIN_VALUE);
+    private static final BigDecimal MAX_CENTS = BigDecimal.valueOf(Long.MAX_VALUE);
+
+    private final ProductRepository productRepository;
+    private final CategoryProductCounts categoryProductCounts;
+    private final TransactionTemplate readOnlyTransaction;
+    private final long[] bucketBounds;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final RoaringBitmap all = new RoaringBitmap();
+    private final RoaringBitmap[] byCategory = new RoaringBitmap[CATEGORY_SLOTS];
+    private final RoaringBitmap[] byPriceBucket;
+    private final Int2IntOpenHashMap categoryOf = new Int2IntOpenHashMap();
+    private final Int2LongOpenHashMap priceCentsOf = new Int2LongOpenHashMap();
+
+    public ProductFacetIndex(
+            ProductRepository productRepository,
+            CategoryProductCounts categoryProductCounts,
+            PlatformTransactionManager transactionManager,
+            @Value("${store.facets.price-buckets:50,100,250,500,1000,2500,5000}") BigDecimal[] priceBuckets) {
+        this.productRepository = productRepository;
+        this.categoryProductCounts = categoryProductCounts;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.bucketBounds = Arrays.stream(priceBuckets).mapToLong(ProductFacetIndex::toCents).sorted().toArray();
+        this.byPriceBucket = new RoaringBitmap[bucketBounds.length + 1];
+        for (int i = 0; i < byPriceBucket.length; i++) {
+            byPriceBucket[i] = new RoaringBitmap();
+        }
+        this.categoryOf.defaultReturnValue(NO_CATEGORY);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            all.clear();
+            Arrays.fill(byCategory, null);
+            Arrays.stream(byPriceBucket).forEach(RoaringBitmap::clear);
+            categoryOf.clear();
+            priceCentsOf.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try (var points = productRepository.streamPricePoints()) {
+                points.forEach(point -> index(point, false));
+            }
+        });
+
+        lock.writeLock().lock();
+        try {
+            var perSlot = new int[CATEGORY_SLOTS];
+            for (int slot = 0; slot < CATEGORY_SLOTS; slot++) {
+                perSlot[slot] = byCategory[slot] == null ? 0 : byCategory[slot].getCardinality();
+            }
+            categoryProductCounts.seed(perSlot);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.getType() == ProductChangedEvent.Type.DELETED) {
+            remove(event.getProductId());
+        } else {
+            ProductDto product = event.getProduct();
+            put(new ProductPricePoint(product.getId(), product.getCategoryId(), product.getPrice()));
+        }
+    }
+
+    public void put(ProductPricePoint point) {
+        index(point, true);
+    }
+
+    public void remove(long productId) {
+        if (!indexable(productId)) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            categoryProductCounts.move(removeUnlocked((int) productId), NO_CATEGORY);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns up to {@code limit} matching product ids greater than {@code afterId}, in ascending order.
+     */
+    public List<Long> matchingIds(Collection<Byte> categoryIds, BigDecimal minPrice, BigDecimal maxPrice, Long afterId, int limit) {
+        lock.readLock().lock();
+        try {
+            List<Long> ids = new ArrayList<>(limit);
+            if (afterId != null && afterId >= Integer.MAX_VALUE) {
+                return ids;
+            }
+
+            var matching = and(categoryFilter(categoryIds), priceFilter(minPrice, maxPrice));
+            var iterator = (matching == null ? all : matching).getIntIterator();
+            if (afterId != null && afterId >= 0) {
+                iterator.advanceIfNeeded((int) (afterId + 1));
+            }
+
+            while (iterator.hasNext() && ids.size() < limit) {
+                ids.add((long) iterator.next());
+            }
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Counts per category and per price bucket. Each facet ignores its own filter, so clients
+     * can show how many products they would get by switching to another category or bucket.
+     */
+    public ProductFacetsDto facets(Collection<Byte> categoryIds, BigDecimal minPrice, BigDecimal maxPrice) {
+        lock.readLock().lock();
+        try {
+            var categoryFilter = categoryFilter(categoryIds);
+            var priceFilter = priceFilter(minPrice, maxPrice);
+            var matching = and(categoryFilter, priceFilter);
+
+            List<CategoryFacetDto> categories = new ArrayList<>();
+            for (int slot = 0; slot < CATEGORY_SLOTS; slot++) {
+                var bitmap = byCategory[slot];
+                if (bitmap == null || bitmap.isEmpty()) {
+                    continue;
+                }
+                var count = priceFilter == null ? bitmap.getCardinality() : RoaringBitmap.andCardinality(bitmap, priceFilter);
+                categories.add(new CategoryFacetDto((byte) slot, count));
+            }
+
+            List<PriceBucketFacetDto> priceBuckets = new ArrayList<>(byPriceBucket.length);
+            for (int bucket = 0; bucket < byPriceBucket.length; bucket++) {
+                var bitmap = byPriceBucket[bucket];
+                var count = categoryFilter == null ? bitmap.getCardinality() : RoaringBitmap.andCardinality(bitmap, categoryFilter);
+                priceBuckets.add(new PriceBucketFacetDto(
+                        bucket == 0 ? BigDecimal.ZERO.setScale(2) : fromCents(bucketBounds[bucket - 1]),
+                        bucket == bucketBounds.length ? null : fromCents(bucketBounds[bucket]),
+                        count));
+            }
+
+            var total = matching == null ? all.getCardinality() : matching.getCardinality();
+            return new ProductFacetsDto(total, categories, priceBuckets);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * {@code counted} is false while rebuilding, because {@link CategoryProductCounts} is seeded
+     * from the bitmaps once the rebuild is done.
+     */
+    private void index(ProductPricePoint point, boolean counted) {
+        if (!indexable(point.getId())) {
+            log.warn("Product {} is outside the facet index id range and will not be indexed", point.getId());
+            return;
+        }
+        var id = point.getId().intValue();
+        lock.writeLock().lock();
+        try {
+            var previous = removeUnlocked(id);
+            all.add(id);
+
+            var slot = NO_CATEGORY;
+            if (point.getCategoryId() != null) {
+                slot = Byte.toUnsignedInt(point.getCategoryId());
+                if (byCategory[slot] == null) {
+                    byCategory[slot] = new RoaringBitmap();
+                }
+                byCategory[slot].add(id);
+                categoryOf.put(id, slot);
+            }
+
+            if (point.getPrice() != null) {
+                var cents = toCents(point.getPrice());
+                byPriceBucket[bucketOf(cents)].add(id);
+                priceCentsOf.put(id, cents);
+            }
+
+            if (counted) {
+                categoryProductCounts.move(previous, slot);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the category slot the product was in, or {@code NO_CATEGORY}.
+     */
+    private int removeUnlocked(int id) {
+        if (!all.checkedRemove(id)) {
+            return NO_CATEGORY;
+        }
+
+        var slot = categoryOf.remove(id);
+        if (slot != NO_CATEGORY) {
+            byCategory[slot].remove(id);
+        }
+        if (priceCentsOf.containsKey(id)) {
+            byPriceBucket[bucketOf(priceCentsOf.remove(id))].remove(id);
+        }
+        return slot;
+    }
+
+    private RoaringBitmap categoryFilter(Collection<Byte> categoryIds) {
+        if (categoryIds == null || categoryIds.isEmpty()) {
+            return null;
+        }
+
+        var result = new RoaringBitmap();
+        for (var categoryId : categoryIds) {
+            var bitmap = byCategory[Byte.toUnsignedInt(categoryId)];
+            if (bitmap != null) {
+                result.or(bitmap);
+            }
+        }
+        return result;
+    }
+
+    private RoaringBitmap priceFilter(BigDecimal minPrice, BigDecimal maxPrice) {
+        if (minPrice == null && maxPrice == null) {
+            return null;
+        }
+
+        var min = minPrice == null ? Long.MIN_VALUE : boundToCents(minPrice);
+        var max = maxPrice == null ? Long.MAX_VALUE : boundToCents(maxPrice);
+        var result = new RoaringBitmap();
+        for (int bucket = 0; bucket < byPriceBucket.length; bucket++) {
+            var bucketMin = bucket == 0 ? Long.MIN_VALUE : bucketBounds[bucket - 1];
+            var bucketMax = bucket == bucketBounds.length ? Long.MAX_VALUE : bucketBounds[bucket] - 1;
+            if (bucketMax < min || bucketMin > max) {
+                continue;
+            }
+
+            if (bucketMin >= min && bucketMax <= max) {
+                result.or(byPriceBucket[bucket]);
+            } else {
+                // Bucket straddles a bound: check the exact price of each member.
+                byPriceBucket[bucket].forEach((int id) -> {
+                    var cents = priceCentsOf.get(id);
+                    if (cents >= min && cents <= max) {
+                        result.add(id);
+                    }
+                });
+            }
+        }
+        return result;
+    }
+
+    private static RoaringBitmap and(RoaringBitmap left, RoaringBitmap right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        return RoaringBitmap.and(left, right);
+    }
+
+    private int bucketOf(long cents) {
+        var position = Arrays.binarySearch(bucketBounds, cents);
+        return position >= 0 ? position + 1 : -position - 1;
+    }
+
+    /**
+     * Query bounds come straight from the request, so values beyond the range of cents are
+     * clamped instead of overflowing.
+     */
+    private static long boundToCents(BigDecimal bound) {
+        var cents = bound.movePointRight(2).setScale(0, RoundingMode.HALF_UP);
+        if (cents.compareTo(MIN_CENTS) < 0) {
+            return Long.MIN_VALUE;
+        }
+        if (cents.compareTo(MAX_CENTS) > 0) {
+            return Long.MAX_VALUE;
+        }
+        return cents.longValueExact();
+    }
+
+    private static boolean indexable(long productId) {
+        return productId >= 0 && productId <= Integer.MAX_VALUE;
+    }
+
+    private static long toCents(BigDecimal price) {
+        return price.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    private static BigDecimal fromCents(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+}
@@ -0,0 +1,281 @@
+package com.yuri.store.services;
+
+import com.yuri.store.dtos.CategoryPriceStatsDto;
+import com.yuri.store.dtos.ProductDto;
+import com.yuri.store.dtos.ProductPricePoint;
+import com.yuri.store.events.ProductChangedEvent;
+import com.yuri.store.repositories.ProductRepository;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.IntStream;
+
+/**
+ * Product prices as a column store: one row per categorized product, with the price in cents in
+ * a {@code long[]} and the category id in a parallel {@code byte[]}. Deletes move the last row
+ * into the hole, so the columns stay dense. Statistics copy the columns under the read lock and
+ * aggregate the copy with parallel primitive streams; the result is reused until the next write.
+ * Built at startup into fresh columns that replace the live ones only once complete, so readers
+ * never see a partial table; products written while the build streams keep their live row.
+ * Kept current from {@link ProductChangedEvent}s.
+ */
+@Component
+public class ProductPriceColumns {
+    private static final int CATEGORY_SHIFT = 48;
+    // Cents are stored biased so that negative prices still sort below positive ones in a key.
+    private static final long PRICE_BIAS = 1L << (CATEGORY_SHIFT - 1);
+    private static final long PRICE_MASK = (1L << CATEGORY_SHIFT) - 1;
+
+    private final ProductRepository productRepository;
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private Columns columns = new Columns();
+    // Products written since the running rebuild started; null when none is running.
+    private LongOpenHashSet writtenDuringRebuild;
+    private long revision;
+
+    private volatile Stats stats = new Stats(-1, List.of());
+
+    public ProductPriceColumns(ProductRepository productRepository, PlatformTransactionManager transactionManager) {
+        this.productRepository = productRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            writtenDuringRebuild = new LongOpenHashSet();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        var fresh = new Columns();
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (var points = productRepository.streamPricePoints()) {
+                    points.forEach(point -> {
+                        if (point.getCategoryId() != null && point.getPrice() != null) {
+                            fresh.put(point.getId(), point.getCategoryId(), toCents(point.getPrice()));
+                        }
+                    });
+                }
+            });
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                writtenDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        lock.writeLock().lock();
+        try {
+            // The stream may have read these before their write committed; the live row is newer.
+            var live = columns;
+            writtenDuringRebuild.forEach(productId -> {
+                var row = live.rowOf.get(productId);
+                if (row < 0) {
+                    fresh.remove(productId);
+                } else {
+                    fresh.put(productId, live.categoryIds[row], live.priceCents[row]);
+                }
+            });
+            columns = fresh;
+            writtenDuringRebuild = null;
+            revision++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.getType() == ProductChangedEvent.Type.DELETED) {
+            remove(event.getProductId());
+        } else {
+            ProductDto product = event.getProduct();
+            put(new ProductPricePoint(product.getId(), product.getCategoryId(), product.getPrice()));
+        }
+    }
+
+    /**
+     * Products without a category or price have no row.
+     */
+    public void put(ProductPricePoint point) {
+        if (point.getCategoryId() == null || point.getPrice() == null) {
+            remove(point.getId());
+            return;
+        }
+
+        var cents = toCents(point.getPrice());
+        lock.writeLock().lock();
+        try {
+            columns.put(point.getId(), point.getCategoryId(), cents);
+            written(point.getId());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long productId) {
+        lock.writeLock().lock();
+        try {
+            columns.remove(productId);
+            written(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void written(long productId) {
+        if (writtenDuringRebuild != null) {
+            writtenDuringRebuild.add(productId);
+        }
+        revision++;
+    }
+
+    /**
+     * Price statistics of every category with at least one product, by category id.
+     * Percentiles use the nearest-rank method.
+     */
+    public List<CategoryPriceStatsDto> statsByCategory() {
+        long[] keys;
+        long atRevision;
+        lock.readLock().lock();
+        try {
+            atRevision = revision;
+            var current = stats;
+            if (current.revision() == atRevision) {
+                return current.categories();
+            }
+            var cents = columns.priceCents;
+            var categories = columns.categoryIds;
+            keys = IntStream.range(0, columns.rows).parallel()
+                    .mapToLong(row -> key(categories[row], cents[row]))
+                    .toArray();
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        // Sorting by (category, price) leaves each category as one run of ascending prices.
+        Arrays.parallelSort(keys);
+        var runStarts = IntStream.range(0, keys.length).parallel()
+                .filter(i -> i == 0 || categoryOf(keys[i]) != categoryOf(keys[i - 1]))
+                .toArray();
+        var categories = IntStream.range(0, runStarts.length).parallel()
+                .mapToObj(run -> summarize(keys, runStarts[run], run + 1 < runStarts.length ? runStarts[run + 1] : keys.length))
+                .toList();
+
+        // Tagged with the revision it was computed at, so a write that raced ahead makes the next call recompute.
+        stats = new Stats(atRevision, categories);
+        return categories;
+    }
+
+    private static CategoryPriceStatsDto summarize(long[] keys, int from, int to) {
+        var count = to - from;
+        var total = IntStream.range(from, to).mapToLong(i -> priceOf(keys[i])).sum();
+        return new CategoryPriceStatsDto(
+                (byte) categoryOf(keys[from]),
+                count,
+                fromCents(priceOf(keys[from])),
+                fromCents(priceOf(keys[to - 1])),
+                BigDecimal.valueOf(total).divide(BigDecimal.valueOf(count), 0, RoundingMode.HALF_UP).movePointLeft(2),
+                fromCents(percentile(keys, from, count, 50)),
+                fromCents(percentile(keys, from, count, 90)),
+                fromCents(percentile(keys, from, count, 99)));
+    }
+
+    private static long percentile(long[] keys, int from, int count, int percent) {
+        var rank = (int) Math.ceil(percent / 100.0 * count);
+        return priceOf(keys[from + Math.max(rank, 1) - 1]);
+    }
+
+    private static long key(byte categoryId, long cents) {
+        return ((long) Byte.toUnsignedInt(categoryId) << CATEGORY_SHIFT) | (cents + PRICE_BIAS);
+    }
+
+    private static int categoryOf(long key) {
+        return (int) (key >>> CATEGORY_SHIFT);
+    }
+
+    private static long priceOf(long key) {
+        return (key & PRICE_MASK) - PRICE_BIAS;
+    }
+
+    private static long toCents(BigDecimal price) {
+        return price.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    private static BigDecimal fromCents(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    private record Stats(long revision, List<CategoryPriceStatsDto> categories) {
+    }
+
+    /**
+     * The columns themselves; not thread-safe, callers hold the write lock or own the instance.
+     */
+    private static final class Columns {
+        private final Long2IntOpenHashMap rowOf = new Long2IntOpenHashMap();
+        private long[] productIds = new long[1024];
+        private long[] priceCents = new long[1024];
+        private byte[] categoryIds = new byte[1024];
+        private int rows;
+
+        Columns() {
+            rowOf.defaultReturnValue(-1);
+        }
+
+        void put(long productId, byte categoryId, long cents) {
+            var row = rowOf.get(productId);
+            if (row < 0) {
+                if (rows == productIds.length) {
+                    grow();
+                }
+                row = rows++;
+                productIds[row] = productId;
+                rowOf.put(productId, row);
+            }
+            priceCents[row] = cents;
+            categoryIds[row] = categoryId;
+        }
+
+        void remove(long productId) {
+            var row = rowOf.remove(productId);
+            if (row < 0) {
+                return;
+            }
+            var last = --rows;
+            if (row != last) {
+                productIds[row] = productIds[last];
+                priceCents[row] = priceCents[last];
+                categoryIds[row] = categoryIds[last];
+                rowOf.put(productIds[row], row);
+            }
+        }
+
+        private void grow() {
+            var capacity = productIds.length * 2;
+            productIds = Arrays.copyOf(productIds, capacity);
+            priceCents = Arrays.copyOf(priceCents, capacity);
+            categoryIds = Arrays.copyOf(categoryIds, capacity);
+        }
+    }
+}
@@ -0,0 +1,356 @@
+package com.yuri.store.services;
+
+import com.yuri.store.dtos.ProductSearchHitDto;
+import com.yuri.store.events.ProductChangedEvent;
+import com.yuri.store.events.UserDeletedEvent;
+import com.yuri.store.events.WishlistChangedEvent;
+import com.yuri.store.repositories.UserRepository;
+import it.unimi.dsi.fastutil.longs.Long2IntMap;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.IntStream;
+
+/**
+ * "Users who wishlisted this also wishlisted" counts, kept as a sparse symmetric co-occurrence
+ * matrix of primitive maps. Every product also keeps its top-K neighbours in count order, so a
+ * lookup copies at most K entries and never touches the database. Built in parallel from the
+ * wishlist table at startup and then kept current from {@link WishlistChangedEvent}s.
+ */
+@Component
+public class ProductRecommendationIndex {
+    private final UserRepository userRepository;
+    private final ProductSearchIndex productSearchIndex;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int topK;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Long2ObjectOpenHashMap<LongOpenHashSet> productsByUser = new Long2ObjectOpenHashMap<>();
+    private final Long2ObjectOpenHashMap<LongOpenHashSet> usersByProduct = new Long2ObjectOpenHashMap<>();
+    private final Long2ObjectOpenHashMap<Long2IntOpenHashMap> counts = new Long2ObjectOpenHashMap<>();
+    private final Long2ObjectOpenHashMap<TopK> related = new Long2ObjectOpenHashMap<>();
+
+    public ProductRecommendationIndex(
+            UserRepository userRepository,
+            ProductSearchIndex productSearchIndex,
+            PlatformTransactionManager transactionManager,
+            @Value("${store.recommendations.top-k:20}") int topK) {
+        this.userRepository = userRepository;
+        this.productSearchIndex = productSearchIndex;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.topK = topK;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        var baskets = new Long2ObjectOpenHashMap<LongOpenHashSet>();
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try (var entries = userRepository.streamWishlistEntries()) {
+                entries.forEach(entry -> baskets.computeIfAbsent(entry.getUserId(), k -> new LongOpenHashSet())
+                        .add(entry.getProductId().longValue()));
+            }
+        });
+
+        // Each basket of n products adds n * (n - 1) increments; count them per worker and merge.
+        var matrix = baskets.values().parallelStream().collect(
+                Long2ObjectOpenHashMap<Long2IntOpenHashMap>::new,
+                ProductRecommendationIndex::countPairs,
+                ProductRecommendationIndex::merge);
+        var productIds = matrix.keySet().toLongArray();
+        var tops = new TopK[productIds.length];
+        IntStream.range(0, productIds.length).parallel()
+                .forEach(i -> tops[i] = TopK.of(matrix.get(productIds[i]), topK));
+
+        lock.writeLock().lock();
+        try {
+            productsByUser.clear();
+            usersByProduct.clear();
+            counts.clear();
+            related.clear();
+            baskets.long2ObjectEntrySet().fastForEach(entry -> {
+                var userId = entry.getLongKey();
+                productsByUser.put(userId, entry.getValue());
+                entry.getValue().forEach(productId -> usersByProduct.computeIfAbsent(productId, k -> new LongOpenHashSet())
+                        .add(userId));
+            });
+            counts.putAll(matrix);
+            for (int i = 0; i < productIds.length; i++) {
+                related.put(productIds[i], tops[i]);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onWishlistChanged(WishlistChangedEvent event) {
+        switch (event.getType()) {
+            case ADDED -> add(event.getUserId(), event.getProductId());
+            case REMOVED -> remove(event.getUserId(), event.getProductId());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserDeleted(UserDeletedEvent event) {
+        removeUser(event.getUserId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.getType() == ProductChangedEvent.Type.DELETED) {
+            removeProduct(event.getProductId());
+        }
+    }
+
+    /**
+     * Products most often wishlisted together with {@code productId}, scored by the number of
+     * users who have both. Products missing from the catalog index are skipped.
+     */
+    public List<ProductSearchHitDto> related(long productId, int limit) {
+        long[] ids;
+        int[] scores;
+        lock.readLock().lock();
+        try {
+            var top = related.get(productId);
+            if (top == null) {
+                return List.of();
+            }
+            var size = Math.min(limit, top.size);
+            ids = Arrays.copyOf(top.ids, size);
+            scores = Arrays.copyOf(top.counts, size);
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<ProductSearchHitDto> hits = new ArrayList<>(ids.length);
+        for (int i = 0; i < ids.length; i++) {
+            var hit = productSearchIndex.describe(ids[i], scores[i]);
+            if (hit != null) {
+                hits.add(hit);
+            }
+        }
+        return hits;
+    }
+
+    public void add(long userId, long productId) {
+        lock.writeLock().lock();
+        try {
+            var basket = productsByUser.computeIfAbsent(userId, k -> new LongOpenHashSet());
+            if (!basket.add(productId)) {
+                return;
+            }
+            usersByProduct.computeIfAbsent(productId, k -> new LongOpenHashSet()).add(userId);
+            basket.forEach(other -> {
+                if (other != productId) {
+                    adjust(productId, other, 1);
+                    adjust(other, productId, 1);
+                }
+            });
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long userId, long productId) {
+        lock.writeLock().lock();
+        try {
+            var basket = productsByUser.get(userId);
+            if (basket == null || !basket.remove(productId)) {
+                return;
+            }
+            if (basket.isEmpty()) {
+                productsByUser.remove(userId);
+            }
+            removeFrom(usersByProduct, productId, userId);
+            basket.forEach(other -> {
+                adjust(productId, other, -1);
+                adjust(other, productId, -1);
+            });
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeUser(long userId) {
+        lock.writeLock().lock();
+        try {
+            var basket = productsByUser.remove(userId);
+            if (basket == null) {
+                return;
+            }
+            basket.forEach(productId -> {
+                removeFrom(usersByProduct, productId, userId);
+                basket.forEach(other -> {
+                    if (other != productId) {
+                        adjust(productId, other, -1);
+                    }
+                });
+            });
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeProduct(long productId) {
+        lock.writeLock().lock();
+        try {
+            var users = usersByProduct.remove(productId);
+            if (users != null) {
+                users.forEach(userId -> removeFrom(productsByUser, userId, productId));
+            }
+            related.remove(productId);
+            var row = counts.remove(productId);
+            if (row != null) {
+                row.keySet().forEach(other -> {
+                    var otherRow = counts.get(other);
+                    otherRow.remove(productId);
+                    refresh(other, otherRow);
+                });
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Increments keep the top-K current in place; a decrement of a top entry may let an entry
+     * from outside the top-K overtake it, so that row is ranked again.
+     */
+    private void adjust(long productId, long other, int delta) {
+        var row = counts.computeIfAbsent(productId, k -> new Long2IntOpenHashMap());
+        var count = row.addTo(other, delta) + delta;
+        if (count <= 0) {
+            row.remove(other);
+        }
+
+        var top = related.get(productId);
+        if (delta > 0) {
+            if (top == null) {
+                top = new TopK(topK);
+                related.put(productId, top);
+            }
+            top.offer(other, count);
+        } else if (top != null && top.contains(other)) {
+            refresh(productId, row);
+        } else if (row.isEmpty()) {
+            counts.remove(productId);
+        }
+    }
+
+    private void refresh(long productId, Long2IntOpenHashMap row) {
+        if (row.isEmpty()) {
+            counts.remove(productId);
+            related.remove(productId);
+        } else {
+            related.put(productId, TopK.of(row, topK));
+        }
+    }
+
+    private static void removeFrom(Long2ObjectOpenHashMap<LongOpenHashSet> sets, long key, long value) {
+        var set = sets.get(key);
+        if (set != null && set.remove(value) && set.isEmpty()) {
+            sets.remove(key);
+        }
+    }
+
+    private static void countPairs(Long2ObjectOpenHashMap<Long2IntOpenHashMap> matrix, LongOpenHashSet basket) {
+        basket.forEach(productId -> {
+            var row = matrix.computeIfAbsent(productId, k -> new Long2IntOpenHashMap());
+            basket.forEach(other -> {
+                if (other != productId) {
+                    row.addTo(other, 1);
+                }
+            });
+        });
+    }
+
+    private static void merge(Long2ObjectOpenHashMap<Long2IntOpenHashMap> into, Long2ObjectOpenHashMap<Long2IntOpenHashMap> from) {
+        from.long2ObjectEntrySet().fastForEach(entry -> {
+            var row = into.get(entry.getLongKey());
+            if (row == null) {
+                into.put(entry.getLongKey(), entry.getValue());
+            } else {
+                entry.getValue().long2IntEntrySet().fastForEach(cell -> row.addTo(cell.getLongKey(), cell.getIntValue()));
+            }
+        });
+    }
+
+    /**
+     * Bounded list of neighbours ordered by count, then by id. K is small, so insertion into a
+     * sorted array beats a heap and leaves the entries ready to copy out.
+     */
+    private static final class TopK {
+        private final long[] ids;
+        private final int[] counts;
+        private int size;
+
+        TopK(int capacity) {
+            ids = new long[capacity];
+            counts = new int[capacity];
+        }
+
+        static TopK of(Long2IntMap row, int capacity) {
+            var top = new TopK(capacity);
+            row.long2IntEntrySet().forEach(cell -> top.offer(cell.getLongKey(), cell.getIntValue()));
+            return top;
+        }
+
+        boolean contains(long id) {
+            return indexOf(id) >= 0;
+        }
+
+        void offer(long id, int count) {
+            var i = indexOf(id);
+            if (i < 0) {
+                if (size < ids.length) {
+                    i = size++;
+                } else if (ranksBefore(id, count, size - 1)) {
+                    i = size - 1;
+                } else {
+                    return;
+                }
+            }
+            ids[i] = id;
+            counts[i] = count;
+            while (i > 0 && ranksBefore(ids[i], counts[i], i - 1)) {
+                swap(i, i - 1);
+                i--;
+            }
+        }
+
+        private boolean ranksBefore(long id, int count, int position) {
+            return count > counts[position] || (count == counts[position] && id < ids[position]);
+        }
+
+        private int indexOf(long id) {
+            for (int i = 0; i < size; i++) {
+                if (ids[i] == id) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private void swap(int a, int b) {
+            var id = ids[a];
+            ids[a] = ids[b];
+            ids[b] = id;
+            var count = counts[a];
+            counts[a] = counts[b];
+            counts[b] = count;
+        }
+    }
+}
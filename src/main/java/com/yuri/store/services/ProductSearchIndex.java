@@ -0,0 +1,280 @@
+package com.yuri.store.services;
+
+import com.yuri.store.dtos.ProductDto;
+import com.yuri.store.dtos.ProductSearchHitDto;
+import com.yuri.store.events.ProductChangedEvent;
+import com.yuri.store.repositories.ProductRepository;
+import it.unimi.dsi.fastutil.ints.Int2DoubleOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import jakarta.persistence.EntityManager;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-process inverted index over product names and descriptions, ranked with BM25.
+ * Products are addressed by dense int document numbers so posting lists are plain
+ * sorted {@code int[]} pairs of (document, term frequency). Built once at startup and
+ * then kept current from {@link ProductChangedEvent}s.
+ */
+@Component
+public class ProductSearchIndex {
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final int NAME_BOOST = 2;
+
+    private final ProductRepository productRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Long2IntOpenHashMap docsByProductId = new Long2IntOpenHashMap();
+    private final ObjectArrayList<Document> documents = new ObjectArrayList<>();
+    private final IntArrayList freeDocs = new IntArrayList();
+    private final Map<String, Postings> postings = new HashMap<>();
+    private long totalLength;
+    private int liveDocs;
+
+    public ProductSearchIndex(
+            ProductRepository productRepository,
+            EntityManager entityManager,
+            PlatformTransactionManager transactionManager) {
+        this.productRepository = productRepository;
+        this.entityManager = entityManager;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.docsByProductId.defaultReturnValue(-1);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        clear();
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try (var products = productRepository.streamAllWithCategory()) {
+                products.forEach(product -> {
+                    var category = product.getCategory();
+                    index(product.getId(), product.getName(), product.getDescription(), product.getPrice(),
+                            category == null ? null : category.getId());
+                    entityManager.detach(product);
+                });
+            }
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.getType() == ProductChangedEvent.Type.DELETED) {
+            remove(event.getProductId());
+        } else {
+            index(event.getProduct());
+        }
+    }
+
+    public void index(ProductDto product) {
+        index(product.getId(), product.getName(), product.getDescription(), product.getPrice(), product.getCategoryId());
+    }
+
+    public void remove(long productId) {
+        lock.writeLock().lock();
+        try {
+            var doc = docsByProductId.remove(productId);
+            if (doc >= 0) {
+                unindex(doc);
+                freeDocs.add(doc);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<ProductSearchHitDto> search(String query, int limit) {
+        var terms = new LinkedHashSet<>(TextTokenizer.tokenize(query));
+        if (terms.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            if (liveDocs == 0) {
+                return List.of();
+            }
+
+            var averageLength = (double) totalLength / liveDocs;
+            var scores = new Int2DoubleOpenHashMap();
+            for (var term : terms) {
+                var termPostings = postings.get(term);
+                if (termPostings == null) {
+                    continue;
+                }
+
+                var idf = Math.log(1 + (liveDocs - termPostings.size + 0.5) / (termPostings.size + 0.5));
+                for (int i = 0; i < termPostings.size; i++) {
+                    var doc = termPostings.docs[i];
+                    var tf = termPostings.freqs[i];
+                    var norm = K1 * (1 - B + B * documents.get(doc).length() / averageLength);
+                    scores.addTo(doc, idf * tf * (K1 + 1) / (tf + norm));
+                }
+            }
+
+            var comparator = Comparator.comparingDouble(ScoredDoc::score)
+                    .thenComparing(Comparator.comparingLong(ScoredDoc::productId).reversed());
+            var top = new PriorityQueue<ScoredDoc>(limit + 1, comparator);
+            for (var entry : scores.int2DoubleEntrySet()) {
+                top.add(new ScoredDoc(entry.getIntKey(), documents.get(entry.getIntKey()).productId(), entry.getDoubleValue()));
+                if (top.size() > limit) {
+                    top.poll();
+                }
+            }
+
+            List<ProductSearchHitDto> hits = new ArrayList<>(top.size());
+            while (!top.isEmpty()) {
+                var scored = top.poll();
+                var document = documents.get(scored.doc());
+                hits.add(new ProductSearchHitDto(document.productId(), document.name(), document.price(), document.categoryId(), scored.score()));
+            }
+            return hits.reversed();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Summary of an indexed product with the given score, or {@code null} when it is not indexed.
+     */
+    public ProductSearchHitDto describe(long productId, double score) {
+        lock.readLock().lock();
+        try {
+            var doc = docsByProductId.get(productId);
+            if (doc < 0) {
+                return null;
+            }
+            var document = documents.get(doc);
+            return new ProductSearchHitDto(document.productId(), document.name(), document.price(), document.categoryId(), score);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void index(Long productId, String name, String description, BigDecimal price, Byte categoryId) {
+        var termFrequencies = new Object2IntOpenHashMap<String>();
+        TextTokenizer.tokenize(name).forEach(term -> termFrequencies.addTo(term, NAME_BOOST));
+        TextTokenizer.tokenize(description).forEach(term -> termFrequencies.addTo(term, 1));
+        var length = termFrequencies.values().intStream().sum();
+        var terms = termFrequencies.keySet().toArray(String[]::new);
+
+        lock.writeLock().lock();
+        try {
+            var doc = docsByProductId.get(productId.longValue());
+            if (doc >= 0) {
+                unindex(doc);
+            } else {
+                doc = freeDocs.isEmpty() ? documents.size() : freeDocs.popInt();
+                docsByProductId.put(productId.longValue(), doc);
+            }
+
+            for (var entry : termFrequencies.object2IntEntrySet()) {
+                postings.computeIfAbsent(entry.getKey(), key -> new Postings()).put(doc, entry.getIntValue());
+            }
+
+            var document = new Document(productId, name, price, categoryId, length, terms);
+            if (doc == documents.size()) {
+                documents.add(document);
+            } else {
+                documents.set(doc, document);
+            }
+            totalLength += length;
+            liveDocs++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void unindex(int doc) {
+        var document = documents.get(doc);
+        for (var term : document.terms()) {
+            var termPostings = postings.get(term);
+            if (termPostings != null && termPostings.remove(doc) && termPostings.size == 0) {
+                postings.remove(term);
+            }
+        }
+        documents.set(doc, null);
+        totalLength -= document.length();
+        liveDocs--;
+    }
+
+    private void clear() {
+        lock.writeLock().lock();
+        try {
+            docsByProductId.clear();
+            documents.clear();
+            freeDocs.clear();
+            postings.clear();
+            totalLength = 0;
+            liveDocs = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private record Document(Long productId, String name, BigDecimal price, Byte categoryId, int length, String[] terms) {
+    }
+
+    private record ScoredDoc(int doc, long productId, double score) {
+    }
+
+    /**
+     * Documents containing a term, kept sorted by document number.
+     */
+    private static final class Postings {
+        private int[] docs = new int[4];
+        private int[] freqs = new int[4];
+        private int size;
+
+        void put(int doc, int freq) {
+            var position = Arrays.binarySearch(docs, 0, size, doc);
+            if (position >= 0) {
+                freqs[position] = freq;
+                return;
+            }
+
+            position = -position - 1;
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                freqs = Arrays.copyOf(freqs, size * 2);
+            }
+            System.arraycopy(docs, position, docs, position + 1, size - position);
+            System.arraycopy(freqs, position, freqs, position + 1, size - position);
+            docs[position] = doc;
+            freqs[position] = freq;
+            size++;
+        }
+
+        boolean remove(int doc) {
+            var position = Arrays.binarySearch(docs, 0, size, doc);
+            if (position < 0) {
+                return false;
+            }
+            System.arraycopy(docs, position + 1, docs, position, size - position - 1);
+            System.arraycopy(freqs, position + 1, freqs, position, size - position - 1);
+            size--;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.yuri.store.services;
+
+import com.yuri.store.events.UserDeletedEvent;
+import com.yuri.store.repositories.AddressRepository;
+import com.yuri.store.repositories.ProfileRepository;
+import com.yuri.store.repositories.UserRepository;
+import lombok.AllArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
+
+/**
+ * Account removal as set-based statements, so neither the user nor its collections are loaded.
+ */
+@Service
+@AllArgsConstructor
+public class UserAccountService {
+    private final UserRepository userRepository;
+    private final AddressRepository addressRepository;
+    private final ProfileRepository profileRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Deletes the user's addresses, profile, wishlist and the user itself in one transaction. When
+     * {@code version} is given the user must still be at it. Returns the number of users deleted;
+     * on 0 nothing is removed.
+     */
+    @Transactional
+    public int delete(Long id, Long version) {
+        addressRepository.deleteAllByUserId(id);
+        profileRepository.removeById(id);
+        var deleted = version == null
+                ? userRepository.removeById(id)
+                : userRepository.removeIfVersion(id, version);
+        if (deleted == 0) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+        } else {
+            eventPublisher.publishEvent(new UserDeletedEvent(id));
+        }
+        return deleted;
+    }
+}
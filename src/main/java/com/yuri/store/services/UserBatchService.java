@@ -0,0 +1,197 @@
+package com.yuri.store.services;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yuri.store.dtos.BatchItemResult;
+import com.yuri.store.dtos.RegisterUserRequest;
+import com.yuri.store.dtos.UserBatchUpdateRequest;
+import com.yuri.store.entities.User;
+import com.yuri.store.mappers.UserMapper;
+import com.yuri.store.repositories.UserRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Bulk user registration and update. Each chunk runs in its own transaction and the
+ * persistence context is flushed and cleared after it, so a failing chunk only affects
+ * its own rows and memory stays flat over millions of rows. Emails already registered, or
+ * repeated within the chunk, are answered with a per-row 409 before anything is written, so
+ * they cannot roll the chunk back on the unique index.
+ */
+@Service
+public class UserBatchService {
+    private final UserRepository userRepository;
+    private final UserMapper userMapper;
+    private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final EmailBloomFilter emailBloomFilter;
+    private final PasswordHasher passwordHasher;
+    private final int chunkSize;
+
+    public UserBatchService(
+            UserRepository userRepository,
+            UserMapper userMapper,
+            ObjectMapper objectMapper,
+            EntityManager entityManager,
+            TransactionTemplate transactionTemplate,
+            EmailBloomFilter emailBloomFilter,
+            PasswordHasher passwordHasher,
+            @Value("${store.batch.chunk-size:1000}") int chunkSize) {
+        this.userRepository = userRepository;
+        this.userMapper = userMapper;
+        this.objectMapper = objectMapper;
+        this.entityManager = entityManager;
+        this.transactionTemplate = transactionTemplate;
+        this.emailBloomFilter = emailBloomFilter;
+        this.passwordHasher = passwordHasher;
+        this.chunkSize = chunkSize;
+    }
+
+    public List<BatchItemResult> createAll(InputStream body) throws IOException {
+        MappingIterator<RegisterUserRequest> rows = objectMapper.readerFor(RegisterUserRequest.class).readValues(body);
+        return BatchChunker.process(rows, chunkSize, this::validate, this::insertChunk);
+    }
+
+    public List<BatchItemResult> updateAll(InputStream body) throws IOException {
+        MappingIterator<UserBatchUpdateRequest> rows = objectMapper.readerFor(UserBatchUpdateRequest.class).readValues(body);
+        return BatchChunker.process(rows, chunkSize, this::validate, this::updateChunk);
+    }
+
+    private String validate(RegisterUserRequest request) {
+        if (request.getName() == null || request.getEmail() == null || request.getPassword() == null) {
+            return "Name, email and password are required";
+        }
+        return null;
+    }
+
+    private String validate(UserBatchUpdateRequest request) {
+        if (request.getId() == null) {
+            return "Id is required";
+        }
+        return null;
+    }
+
+    private void insertChunk(List<BatchChunker.Row<RegisterUserRequest>> chunk, List<BatchItemResult> results) {
+        Set<String> emails = new HashSet<>();
+        List<BatchChunker.Row<RegisterUserRequest>> fresh = new ArrayList<>(chunk.size());
+        for (var row : chunk) {
+            if (!claimEmail(emails, row.item().getEmail())) {
+                results.set(row.index(), emailTaken(row.index()));
+            } else {
+                fresh.add(row);
+            }
+        }
+        if (fresh.isEmpty()) {
+            return;
+        }
+
+        var hashes = passwordHasher.encodeAll(fresh.stream().map(row -> row.item().getPassword()).toList());
+        List<BatchChunker.Row<RegisterUserRequest>> hashed = new ArrayList<>(fresh.size());
+        List<User> users = new ArrayList<>(fresh.size());
+        for (int i = 0; i < fresh.size(); i++) {
+            var row = fresh.get(i);
+            if (hashes[i] == null) {
+                results.set(row.index(),
+                        BatchItemResult.failed(row.index(), HttpStatus.SERVICE_UNAVAILABLE, "Password hashing is overloaded"));
+                continue;
+            }
+            var user = userMapper.toEntity(row.item());
+            user.setPassword(hashes[i]);
+            hashed.add(row);
+            users.add(user);
+        }
+        if (users.isEmpty()) {
+            return;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                users.forEach(entityManager::persist);
+                entityManager.flush();
+                entityManager.clear();
+            });
+        } catch (DataAccessException | PersistenceException | TransactionException e) {
+            BatchChunker.failChunk(hashed, results, e);
+            return;
+        }
+
+        for (int i = 0; i < hashed.size(); i++) {
+            var index = hashed.get(i).index();
+            results.set(index, BatchItemResult.ok(index, HttpStatus.CREATED, users.get(i).getId()));
+            emailBloomFilter.put(users.get(i).getEmail());
+        }
+    }
+
+    private void updateChunk(List<BatchChunker.Row<UserBatchUpdateRequest>> chunk, List<BatchItemResult> results) {
+        List<BatchItemResult> chunkResults = new ArrayList<>(chunk.size());
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                var ids = chunk.stream().map(row -> row.item().getId()).toList();
+                Map<Long, User> users = new HashMap<>();
+                userRepository.findAllById(ids).forEach(user -> users.put(user.getId(), user));
+                Set<String> emails = new HashSet<>();
+
+                for (var row : chunk) {
+                    var user = users.get(row.item().getId());
+                    if (user == null) {
+                        chunkResults.add(BatchItemResult.failed(row.index(), HttpStatus.NOT_FOUND, "User not found"));
+                        continue;
+                    }
+                    var email = row.item().getEmail();
+                    if (email != null && !sameEmail(email, user.getEmail()) && !claimEmail(emails, email)) {
+                        chunkResults.add(emailTaken(row.index()));
+                        continue;
+                    }
+                    userMapper.update(row.item(), user);
+                    chunkResults.add(BatchItemResult.ok(row.index(), HttpStatus.OK, user.getId()));
+                }
+
+                entityManager.flush();
+                entityManager.clear();
+            });
+        } catch (DataAccessException | PersistenceException | TransactionException e) {
+            BatchChunker.failChunk(chunk, results, e);
+            return;
+        }
+
+        chunkResults.forEach(result -> results.set(result.getIndex(), result));
+        chunk.forEach(row -> {
+            if (results.get(row.index()).getError() == null) {
+                emailBloomFilter.renamed(row.item().getEmail());
+            }
+        });
+    }
+
+    /**
+     * Whether {@code email} is free, neither registered nor already claimed by an earlier row of
+     * the chunk; a free email is claimed.
+     */
+    private boolean claimEmail(Set<String> claimed, String email) {
+        return claimed.add(EmailBloomFilter.normalize(email)) && !emailBloomFilter.isTaken(email);
+    }
+
+    private static boolean sameEmail(String email, String current) {
+        return current != null && EmailBloomFilter.normalize(email).equals(EmailBloomFilter.normalize(current));
+    }
+
+    private static BatchItemResult emailTaken(int index) {
+        return BatchItemResult.failed(index, HttpStatus.CONFLICT, "Email already registered");
+    }
+}
@@ -0,0 +1,203 @@
+package com.yuri.store.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.yuri.store.events.ProductChangedEvent;
+import com.yuri.store.events.UserDeletedEvent;
+import com.yuri.store.events.WishlistChangedEvent;
+import com.yuri.store.repositories.ProductRepository;
+import com.yuri.store.repositories.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Wishlists kept as one compressed bitmap of product ids per user, so "is it favorited?" for a
+ * whole page of products is answered from memory. Cached bitmaps are never modified in place, so
+ * readers need no locking. A write evicts the user's bitmap rather than patching it: two
+ * concurrent writes could patch in the opposite order of their statements, while a reload
+ * always matches the table. Cache counters are published as the {@code cache.*} metrics tagged
+ * {@code cache=wishlists}.
+ */
+@Service
+public class WishlistService {
+    private final UserRepository userRepository;
+    private final ProductRepository productRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Cache<Long, RoaringBitmap> cache;
+
+    public WishlistService(
+            UserRepository userRepository,
+            ProductRepository productRepository,
+            ApplicationEventPublisher eventPublisher,
+            @Value("${store.cache.wishlists.maximum-size:100000}") long maximumSize,
+            @Value("${store.cache.wishlists.ttl:30m}") Duration ttl,
+            MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.productRepository = productRepository;
+        this.eventPublisher = eventPublisher;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "wishlists");
+    }
+
+    /**
+     * Maps each product id to whether the user favorited it, or returns {@code null} when the
+     * user does not exist.
+     */
+    public Map<Long, Boolean> contains(Long userId, Collection<Long> productIds) {
+        var favorites = find(userId);
+        if (favorites == null) {
+            return null;
+        }
+        Map<Long, Boolean> result = new LinkedHashMap<>();
+        for (var productId : productIds) {
+            result.put(productId, contains(favorites, productId));
+        }
+        return result;
+    }
+
+    /**
+     * Favorite product ids in ascending order, starting after {@code afterId}, or {@code null}
+     * when the user does not exist.
+     */
+    public List<Long> page(Long userId, Long afterId, int limit) {
+        var favorites = find(userId);
+        if (favorites == null) {
+            return null;
+        }
+        List<Long> ids = new ArrayList<>(limit);
+        if (afterId != null && afterId >= Integer.MAX_VALUE) {
+            return ids;
+        }
+        var iterator = favorites.getIntIterator();
+        if (afterId != null && afterId >= 0) {
+            iterator.advanceIfNeeded((int) (afterId + 1));
+        }
+        while (iterator.hasNext() && ids.size() < limit) {
+            ids.add((long) iterator.next());
+        }
+        return ids;
+    }
+
+    /**
+     * Returns whether the product is (now) a favorite; {@code false} when the user or the
+     * product does not exist.
+     */
+    public boolean add(Long userId, Long productId) {
+        var favorites = find(userId);
+        if (favorites == null) {
+            return false;
+        }
+        if (contains(favorites, productId)) {
+            return true;
+        }
+
+        try {
+            if (userRepository.addFavoriteProduct(userId, productId) == 1) {
+                eventPublisher.publishEvent(WishlistChangedEvent.added(userId, productId));
+            } else if (!productRepository.existsById(productId)) {
+                return false;
+            }
+        } catch (DuplicateKeyException e) {
+            // Added concurrently by another request; the row is there either way.
+        }
+        evict(userId);
+        return true;
+    }
+
+    /**
+     * Returns whether the product is no longer a favorite; {@code false} when the user does not
+     * exist.
+     */
+    public boolean remove(Long userId, Long productId) {
+        var favorites = find(userId);
+        if (favorites == null) {
+            return false;
+        }
+        if (contains(favorites, productId)) {
+            if (userRepository.removeFavoriteProduct(userId, productId) == 1) {
+                eventPublisher.publishEvent(WishlistChangedEvent.removed(userId, productId));
+            }
+            evict(userId);
+        }
+        return true;
+    }
+
+    public void evict(Long userId) {
+        cache.invalidate(userId);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserDeleted(UserDeletedEvent event) {
+        evict(event.getUserId());
+    }
+
+    /**
+     * Deleted products leave every wishlist through the foreign key cascade, so drop them from
+     * the cached bitmaps too.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.getType() != ProductChangedEvent.Type.DELETED) {
+            return;
+        }
+        var productId = event.getProductId();
+        cache.asMap().forEach((userId, favorites) -> {
+            if (contains(favorites, productId)) {
+                removeFromCached(userId, productId);
+            }
+        });
+    }
+
+    /**
+     * Unknown users are not cached, so a user created later is picked up on the next call.
+     */
+    private RoaringBitmap find(Long userId) {
+        return cache.get(userId, this::load);
+    }
+
+    private RoaringBitmap load(Long userId) {
+        var ids = userRepository.findFavoriteProductIds(userId);
+        if (ids.isEmpty()) {
+            return null;
+        }
+        var favorites = new RoaringBitmap();
+        for (var id : ids) {
+            if (id != null) {
+                favorites.add(Math.toIntExact(id));
+            }
+        }
+        favorites.runOptimize();
+        return favorites;
+    }
+
+    private void removeFromCached(Long userId, Long productId) {
+        cache.asMap().computeIfPresent(userId, (key, favorites) -> {
+            var copy = favorites.clone();
+            copy.remove(Math.toIntExact(productId));
+            copy.runOptimize();
+            return copy;
+        });
+    }
+
+    private static boolean contains(RoaringBitmap favorites, Long productId) {
+        return productId != null && productId >= 0 && productId <= Integer.MAX_VALUE
+                && favorites.contains(productId.intValue());
+    }
+}
@@ -0,0 +1,7 @@
+CREATE INDEX idx_products_name_id ON products (name, id);
+
+CREATE INDEX idx_products_price_id ON products (price, id);
+
+CREATE INDEX idx_products_category_name_id ON products (category_id, name, id);
+
+CREATE INDEX idx_products_category_price_id ON products (category_id, price, id);
@@ -0,0 +1,9 @@
+CREATE TABLE products_seq
+(
+    next_val BIGINT NULL
+);
+
+-- Hibernate's pooled optimizer hands out (next_val - 49 .. next_val), so start one block past the current ids.
+INSERT INTO products_seq (next_val)
+SELECT COALESCE(MAX(id), 0) + 50
+FROM products;
@@ -0,0 +1,9 @@
+CREATE TABLE users_seq
+(
+    next_val BIGINT NULL
+);
+
+-- Same layout as products_seq: the pooled optimizer hands out (next_val - 49 .. next_val).
+INSERT INTO users_seq (next_val)
+SELECT COALESCE(MAX(id), 0) + 50
+FROM users;
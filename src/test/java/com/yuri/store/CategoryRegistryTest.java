@@ -0,0 +1,87 @@
+package com.yuri.store.services;
+
+import com.yuri.store.entities.Category;
+import com.yuri.store.events.CategoryChangedEvent;
+import com.yuri.store.repositories.CategoryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class CategoryRegistryTest {
+
+    @Mock
+    private CategoryRepository categoryRepository;
+
+    private CategoryRegistry categoryRegistry;
+
+    @BeforeEach
+    void setUp() {
+        categoryRegistry = new CategoryRegistry(categoryRepository);
+    }
+
+    private Category category(byte id, String name) {
+        Category category = new Category(name);
+        category.setId(id);
+        return category;
+    }
+
+    @Test
+    void testRefreshLoadsAllCategories() {
+        when(categoryRepository.findAll()).thenReturn(List.of(category((byte) 1, "Eletrônicos"), category((byte) 2, "Livros")));
+
+        categoryRegistry.refresh();
+
+        assertEquals("Eletrônicos", categoryRegistry.find((byte) 1).getName());
+        assertEquals("Livros", categoryRegistry.find((byte) 2).getName());
+        assertNull(categoryRegistry.find((byte) 3));
+        verify(categoryRepository, times(1)).findAll();
+    }
+
+    @Test
+    void testFindUsesUnsignedSlotForNegativeIds() {
+        categoryRegistry.register(category((byte) -1, "Ofertas"));
+
+        assertEquals("Ofertas", categoryRegistry.find((byte) -1).getName());
+        assertNull(categoryRegistry.find((byte) 127));
+    }
+
+    @Test
+    void testUnregisterRemovesCategory() {
+        categoryRegistry.register(category((byte) 5, "Roupas"));
+        categoryRegistry.unregister((byte) 5);
+
+        assertNull(categoryRegistry.find((byte) 5));
+    }
+
+    @Test
+    void testToDtoReusesRegisteredInstance() {
+        Category roupas = category((byte) 5, "Roupas");
+        categoryRegistry.register(roupas);
+
+        var dto = categoryRegistry.toDto(roupas);
+
+        assertSame(dto, categoryRegistry.toDto(roupas));
+        assertEquals("Roupas", dto.getName());
+        assertNull(categoryRegistry.toDto(null));
+    }
+
+    @Test
+    void testCategoryEventsUpdateRegistry() {
+        categoryRegistry.onCategoryChanged(CategoryChangedEvent.saved((byte) 7, "Jogos"));
+        assertEquals("Jogos", categoryRegistry.find((byte) 7).getName());
+
+        categoryRegistry.onCategoryChanged(CategoryChangedEvent.saved((byte) 7, "Games"));
+        assertEquals("Games", categoryRegistry.findDto((byte) 7).getName());
+
+        categoryRegistry.onCategoryChanged(CategoryChangedEvent.deleted((byte) 7));
+        assertNull(categoryRegistry.find((byte) 7));
+    }
+}
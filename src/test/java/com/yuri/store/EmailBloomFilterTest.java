@@ -0,0 +1,74 @@
+package com.yuri.store.services;
+
+import com.yuri.store.events.UserDeletedEvent;
+import com.yuri.store.repositories.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+public class EmailBloomFilterTest {
+
+    private UserRepository userRepository;
+    private EmailBloomFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        filter = new EmailBloomFilter(userRepository, mock(PlatformTransactionManager.class),
+                10_000, 0.01, 0.2, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void testUnknownEmailsSkipTheQuery() {
+        filter.put("joao@test.com");
+        when(userRepository.existsByEmail("joao@test.com")).thenReturn(true);
+
+        assertTrue(filter.isTaken("joao@test.com"));
+        assertFalse(filter.isTaken("maria@test.com"));
+        assertFalse(filter.isTaken(null));
+
+        verify(userRepository, never()).existsByEmail("maria@test.com");
+    }
+
+    @Test
+    void testFalsePositiveRateStaysNearTheTarget() {
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("cadastrado" + i + "@test.com");
+        }
+
+        for (int i = 0; i < 10_000; i++) {
+            assertFalse(filter.isTaken("livre" + i + "@test.com"));
+        }
+
+        // Cada falso positivo custa uma query; o alvo é 1%, aceitamos até 2%
+        verify(userRepository, atMost(200)).existsByEmail(anyString());
+    }
+
+    @Test
+    void testStaleEntriesTriggerARebuild() {
+        filter.put("antigo@test.com");
+        filter.put("mantido@test.com");
+        filter.renamed("mantido@test.com");
+        filter.rebuildIfStale();
+        verify(userRepository, never()).streamEmails();
+
+        // Troca de email e exclusão deixam entradas que o filtro não consegue remover
+        filter.renamed("novo@test.com");
+        filter.onUserDeleted(new UserDeletedEvent(1L));
+        when(userRepository.count()).thenReturn(2L);
+        when(userRepository.streamEmails()).thenReturn(Stream.of("novo@test.com", "mantido@test.com"));
+        filter.rebuildIfStale();
+
+        assertFalse(filter.isTaken("antigo@test.com"));
+        verify(userRepository, never()).existsByEmail("antigo@test.com");
+        when(userRepository.existsByEmail("novo@test.com")).thenReturn(true);
+        assertTrue(filter.isTaken("novo@test.com"));
+    }
+}
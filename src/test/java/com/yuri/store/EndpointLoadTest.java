@@ -0,0 +1,247 @@
+package com.yuri.store.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yuri.store.entities.Category;
+import com.yuri.store.entities.Product;
+import com.yuri.store.entities.User;
+import com.yuri.store.repositories.CategoryRepository;
+import com.yuri.store.repositories.ProductRepository;
+import com.yuri.store.repositories.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Drives real HTTP traffic at every ProductController and UserController endpoint against the H2
+ * test profile and reports throughput and latency percentiles per endpoint. Results are printed
+ * and written to {@code target/load-benchmark.csv}.
+ *
+ * <p>Run with {@code mvn test -Pbenchmark -Dtest=EndpointLoadTest}. Tunables:
+ * {@code -Dbenchmark.concurrency}, {@code -Dbenchmark.seconds}, {@code -Dbenchmark.warmup-seconds},
+ * {@code -Dbenchmark.products}, {@code -Dbenchmark.users}, {@code -Dbenchmark.deletes}.
+ */
+@Tag("benchmark")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+    "spring.jpa.show-sql=false",
+    "logging.level.org.hibernate.SQL=WARN",
+    "logging.level.org.hibernate.orm.jdbc.bind=WARN",
+    "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN"
+})
+public class EndpointLoadTest {
+    private static final int CONCURRENCY = Integer.getInteger("benchmark.concurrency", 64);
+    private static final Duration WARMUP = Duration.ofSeconds(Integer.getInteger("benchmark.warmup-seconds", 3));
+    private static final Duration DURATION = Duration.ofSeconds(Integer.getInteger("benchmark.seconds", 10));
+    private static final int PRODUCTS = Integer.getInteger("benchmark.products", 10_000);
+    private static final int USERS = Integer.getInteger("benchmark.users", 2_000);
+    private static final int DELETES = Integer.getInteger("benchmark.deletes", 2_000);
+    private static final int CATEGORIES = 10;
+    private static final String PASSWORD = "senha123";
+    private static final String[] SEARCH_TERMS = {"notebook", "mouse", "teclado", "monitor", "cadeira"};
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private final List<Byte> categoryIds = new ArrayList<>();
+    private final List<Long> productIds = new ArrayList<>();
+    private final List<Long> userIds = new ArrayList<>();
+    private final List<Long> deletableProductIds = new ArrayList<>();
+    private final List<Long> deletableUserIds = new ArrayList<>();
+    private final AtomicLong sequence = new AtomicLong();
+
+    @BeforeEach
+    void seed() {
+        productRepository.deleteAll();
+        userRepository.deleteAll();
+        categoryRepository.deleteAll();
+
+        var categories = new ArrayList<Category>();
+        for (int i = 0; i < CATEGORIES; i++) {
+            categories.add(categoryRepository.save(new Category("Categoria " + i)));
+            categoryIds.add(categories.get(i).getId());
+        }
+
+        productRepository.saveAll(products(PRODUCTS, categories)).forEach(product -> productIds.add(product.getId()));
+        productRepository.saveAll(products(DELETES, categories)).forEach(product -> deletableProductIds.add(product.getId()));
+        userRepository.saveAll(users(USERS, "carga")).forEach(user -> userIds.add(user.getId()));
+        userRepository.saveAll(users(DELETES, "descarte")).forEach(user -> deletableUserIds.add(user.getId()));
+    }
+
+    @Test
+    void measureEveryEndpoint() throws Exception {
+        var driver = new LoadDriver();
+        var results = new ArrayList<LoadDriver.Result>();
+
+        results.add(driver.run("GET /products", CONCURRENCY, WARMUP, DURATION,
+                random -> get("/products?limit=50")));
+        results.add(driver.run("GET /products?sort=price&categoryId", CONCURRENCY, WARMUP, DURATION,
+                random -> get("/products?limit=50&sort=price&categoryId=" + pick(categoryIds, random.nextInt()))));
+        results.add(driver.run("GET /products/search", CONCURRENCY, WARMUP, DURATION,
+                random -> get("/products/search?q=" + SEARCH_TERMS[random.nextInt(SEARCH_TERMS.length)])));
+        results.add(driver.run("GET /products/{id}", CONCURRENCY, WARMUP, DURATION,
+                random -> get("/products/" + pick(productIds, random.nextInt()))));
+        results.add(driver.run("GET /products/export", Math.min(CONCURRENCY, 4), Duration.ZERO, DURATION,
+                random -> get("/products/export")));
+        results.add(driver.run("POST /products", CONCURRENCY, WARMUP, DURATION,
+                random -> send("POST", "/products", productBody(null, random.nextInt()))));
+        results.add(driver.run("POST /products/batch (100)", Math.min(CONCURRENCY, 8), WARMUP, DURATION,
+                random -> send("POST", "/products/batch", productBatchBody(random.nextInt()))));
+        results.add(driver.run("PUT /products/{id}", CONCURRENCY, WARMUP, DURATION,
+                random -> {
+                    var id = pick(productIds, random.nextInt());
+                    return send("PUT", "/products/" + id, productBody(id, random.nextInt()));
+                }));
+        var nextProduct = new AtomicInteger();
+        results.add(driver.run("DELETE /products/{id}", CONCURRENCY, Duration.ZERO, DURATION, deletableProductIds.size(),
+                random -> send("DELETE", "/products/" + deletableProductIds.get(nextProduct.getAndIncrement()), null)));
+
+        results.add(driver.run("GET /users", Math.min(CONCURRENCY, 8), WARMUP, DURATION,
+                random -> get("/users?sort=email")));
+        results.add(driver.run("GET /users/{id}", CONCURRENCY, WARMUP, DURATION,
+                random -> get("/users/" + pick(userIds, random.nextInt()))));
+        results.add(driver.run("POST /users", CONCURRENCY, WARMUP, DURATION,
+                random -> send("POST", "/users", json(Map.of(
+                        "name", "Novo usuário",
+                        "email", "novo" + sequence.incrementAndGet() + "@test.com",
+                        "password", PASSWORD)))));
+        results.add(driver.run("PUT /users/{id}", CONCURRENCY, WARMUP, DURATION,
+                random -> {
+                    var id = pick(userIds, random.nextInt());
+                    return send("PUT", "/users/" + id, json(Map.of(
+                            "name", "Usuário " + id,
+                            "email", "carga" + id + "-" + sequence.incrementAndGet() + "@test.com")));
+                }));
+        results.add(driver.run("POST /users/{id}/change-password", CONCURRENCY, WARMUP, DURATION,
+                random -> send("POST", "/users/" + pick(userIds, random.nextInt()) + "/change-password",
+                        json(Map.of("oldPassword", PASSWORD, "newPassword", PASSWORD)))));
+        var nextUser = new AtomicInteger();
+        results.add(driver.run("DELETE /users/{id}", CONCURRENCY, Duration.ZERO, DURATION, deletableUserIds.size(),
+                random -> send("DELETE", "/users/" + deletableUserIds.get(nextUser.getAndIncrement()), null)));
+
+        report(results);
+        results.forEach(result -> assertTrue(result.requests() > 0, result.name()));
+    }
+
+    private void report(List<LoadDriver.Result> results) throws IOException {
+        System.out.printf("%nconcurrency=%d duration=%s products=%d users=%d%n", CONCURRENCY, DURATION, PRODUCTS, USERS);
+        for (var result : results) {
+            System.out.println(result.format());
+            System.out.println(result.formatHistogram());
+        }
+
+        var csv = new ArrayList<String>();
+        csv.add(LoadDriver.Result.csvHeader());
+        results.forEach(result -> csv.add(result.toCsv()));
+        Files.write(Path.of("target", "load-benchmark.csv"), csv);
+    }
+
+    private List<Product> products(int count, List<Category> categories) {
+        var products = new ArrayList<Product>(count);
+        for (int i = 0; i < count; i++) {
+            products.add(Product.builder()
+                    .name(SEARCH_TERMS[i % SEARCH_TERMS.length] + " modelo " + i)
+                    .description("Produto de carga " + i)
+                    .price(BigDecimal.valueOf(100 + i % 99_900, 2))
+                    .category(categories.get(i % categories.size()))
+                    .build());
+        }
+        return products;
+    }
+
+    private List<User> users(int count, String prefix) {
+        var users = new ArrayList<User>(count);
+        for (int i = 0; i < count; i++) {
+            var user = new User();
+            user.setName("Usuário " + prefix + " " + i);
+            user.setEmail(prefix + i + "@test.com");
+            user.setPassword(PASSWORD);
+            users.add(user);
+        }
+        return users;
+    }
+
+    private String productBody(Long id, int seed) {
+        return json(productFields(id, seed));
+    }
+
+    private String productBatchBody(int seed) {
+        var rows = new ArrayList<Map<String, Object>>(100);
+        for (int i = 0; i < 100; i++) {
+            rows.add(productFields(null, seed + i));
+        }
+        return json(rows);
+    }
+
+    private Map<String, Object> productFields(Long id, int seed) {
+        var positive = seed & Integer.MAX_VALUE;
+        return Map.of(
+                "name", (id == null ? "Produto novo " : "Produto " + id + " ") + positive,
+                "description", "Gerado pelo benchmark",
+                "price", BigDecimal.valueOf(100 + positive % 99_900, 2),
+                "categoryId", pick(categoryIds, seed));
+    }
+
+    private static <T> T pick(List<T> values, int seed) {
+        return values.get((seed & Integer.MAX_VALUE) % values.size());
+    }
+
+    private String json(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(uri(path)).GET().build();
+    }
+
+    private HttpRequest send(String method, String path, String body) {
+        var builder = HttpRequest.newBuilder(uri(path));
+        if (body == null) {
+            return builder.method(method, HttpRequest.BodyPublishers.noBody()).build();
+        }
+        return builder.header("Content-Type", "application/json")
+                .method(method, HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+}
@@ -0,0 +1,135 @@
+package com.yuri.store.benchmark;
+
+import com.yuri.store.entities.Category;
+import com.yuri.store.entities.Product;
+import com.yuri.store.entities.User;
+import com.yuri.store.repositories.CategoryRepository;
+import com.yuri.store.repositories.ProductRepository;
+import com.yuri.store.repositories.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares platform-thread and virtual-thread request handling on the blocking JDBC endpoints.
+ * Run with {@code mvn test -Pbenchmark -Dtest=ExecutionModeLoadTest}; concurrency and duration can be overridden with
+ * {@code -Dbenchmark.concurrency} and {@code -Dbenchmark.seconds}.
+ */
+@Tag("benchmark")
+public class ExecutionModeLoadTest {
+    private static final int CONCURRENCY = Integer.getInteger("benchmark.concurrency", 256);
+    private static final Duration WARMUP = Duration.ofSeconds(Integer.getInteger("benchmark.warmup-seconds", 5));
+    private static final Duration DURATION = Duration.ofSeconds(Integer.getInteger("benchmark.seconds", 15));
+    private static final int PRODUCTS = 5_000;
+    private static final int USERS = 1_000;
+
+    @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+    @ActiveProfiles("test")
+    @TestPropertySource(properties = {
+        "spring.jpa.show-sql=false",
+        "logging.level.org.hibernate.SQL=WARN",
+        "logging.level.org.hibernate.orm.jdbc.bind=WARN",
+        "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN",
+        "server.tomcat.threads.max=50"
+    })
+    abstract static class Mode {
+        @LocalServerPort
+        private int port;
+
+        @Autowired
+        private CategoryRepository categoryRepository;
+
+        @Autowired
+        private ProductRepository productRepository;
+
+        @Autowired
+        private UserRepository userRepository;
+
+        private final List<Long> productIds = new ArrayList<>();
+        private final List<Long> userIds = new ArrayList<>();
+
+        @BeforeEach
+        void seed() {
+            productRepository.deleteAll();
+            userRepository.deleteAll();
+            categoryRepository.deleteAll();
+
+            var category = categoryRepository.save(new Category("Eletrônicos"));
+            var products = new ArrayList<Product>(PRODUCTS);
+            for (int i = 0; i < PRODUCTS; i++) {
+                products.add(Product.builder()
+                        .name("Produto " + i)
+                        .description("Produto de carga " + i)
+                        .price(BigDecimal.valueOf(10 + i % 990))
+                        .category(category)
+                        .build());
+            }
+            productRepository.saveAll(products).forEach(product -> productIds.add(product.getId()));
+
+            var users = new ArrayList<User>(USERS);
+            for (int i = 0; i < USERS; i++) {
+                var user = new User();
+                user.setName("Usuário " + i);
+                user.setEmail("carga" + i + "@test.com");
+                user.setPassword("senha123");
+                users.add(user);
+            }
+            userRepository.saveAll(users).forEach(user -> userIds.add(user.getId()));
+        }
+
+        abstract String mode();
+
+        @Test
+        void measureBlockingEndpoints() throws Exception {
+            var driver = new LoadDriver();
+            var results = List.of(
+                driver.run(mode() + " GET /products?limit=50", CONCURRENCY, WARMUP, DURATION,
+                        random -> get("/products?limit=50&sort=price")),
+                driver.run(mode() + " GET /users/{id}", CONCURRENCY, WARMUP, DURATION,
+                        random -> get("/users/" + userIds.get(random.nextInt(userIds.size())))),
+                driver.run(mode() + " GET /products/{id}", CONCURRENCY, WARMUP, DURATION,
+                        random -> get("/products/" + productIds.get(random.nextInt(productIds.size()))))
+            );
+
+            results.forEach(result -> System.out.println(result.format()));
+            results.forEach(result -> assertTrue(result.requests() > 0, result.name()));
+        }
+
+        private HttpRequest get(String path) {
+            return HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).GET().build();
+        }
+    }
+
+    @Nested
+    @TestPropertySource(properties = "spring.threads.virtual.enabled=false")
+    class PlatformThreads extends Mode {
+        @Override
+        String mode() {
+            return "platform";
+        }
+    }
+
+    @Nested
+    @TestPropertySource(properties = "spring.threads.virtual.enabled=true")
+    class VirtualThreads extends Mode {
+        @Override
+        String mode() {
+            return "virtual";
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.yuri.store.benchmark;
+
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Closed-loop HTTP load generator: {@code concurrency} virtual-thread clients send requests back
+ * to back until the duration or the request budget runs out. Latency is measured per request on
+ * the client; responses with status 400 or above count as errors.
+ */
+public final class LoadDriver {
+    /** Upper bounds in milliseconds of the histogram buckets; the last bucket is open-ended. */
+    private static final long[] BUCKET_BOUNDS_MILLIS = {1, 2, 5, 10, 20, 50, 100, 200, 500, 1000};
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+
+    public record Result(String name, long requests, long errors, double throughput,
+                         double p50Millis, double p95Millis, double p99Millis, double maxMillis, long[] histogram) {
+        public String format() {
+            return String.format(Locale.ROOT,
+                    "%-40s %9d req %6d err %10.1f req/s   p50 %7.2f   p95 %7.2f   p99 %7.2f   max %8.2f ms",
+                    name, requests, errors, throughput, p50Millis, p95Millis, p99Millis, maxMillis);
+        }
+
+        public String formatHistogram() {
+            var line = new StringBuilder(String.format(Locale.ROOT, "%-40s", ""));
+            for (int i = 0; i < histogram.length; i++) {
+                var label = i < BUCKET_BOUNDS_MILLIS.length
+                        ? "<" + BUCKET_BOUNDS_MILLIS[i] + "ms"
+                        : ">=" + BUCKET_BOUNDS_MILLIS[BUCKET_BOUNDS_MILLIS.length - 1] + "ms";
+                line.append(' ').append(label).append(':').append(histogram[i]);
+            }
+            return line.toString();
+        }
+
+        public static String csvHeader() {
+            return "name,requests,errors,throughput,p50_ms,p95_ms,p99_ms,max_ms";
+        }
+
+        public String toCsv() {
+            return String.format(Locale.ROOT, "%s,%d,%d,%.1f,%.3f,%.3f,%.3f,%.3f",
+                    name, requests, errors, throughput, p50Millis, p95Millis, p99Millis, maxMillis);
+        }
+    }
+
+    public Result run(String name, int concurrency, Duration warmup, Duration duration,
+                      Function<ThreadLocalRandom, HttpRequest> request) throws InterruptedException {
+        return run(name, concurrency, warmup, duration, Long.MAX_VALUE, request);
+    }
+
+    /**
+     * @param maxRequests stops the measurement early once this many requests were sent, for
+     *                    scenarios that consume seeded rows such as deletes
+     * @param request     builds the next request from a random number, so scenarios can spread
+     *                    load over many ids without sharing state between clients
+     */
+    public Result run(String name, int concurrency, Duration warmup, Duration duration, long maxRequests,
+                      Function<ThreadLocalRandom, HttpRequest> request) throws InterruptedException {
+        if (!warmup.isZero()) {
+            drive(concurrency, warmup, Long.MAX_VALUE, request);
+        }
+        var start = System.nanoTime();
+        var samples = drive(concurrency, duration, maxRequests, request);
+        var elapsedSeconds = (System.nanoTime() - start) / 1e9;
+
+        var latencies = new LongArrayList();
+        long errors = 0;
+        for (var sample : samples) {
+            latencies.addAll(sample.latencies);
+            errors += sample.errors;
+        }
+        latencies.sort(null);
+        long total = latencies.size() + errors;
+        return new Result(name, total, errors, total / elapsedSeconds,
+                percentile(latencies, 0.50), percentile(latencies, 0.95), percentile(latencies, 0.99),
+                percentile(latencies, 1.0), histogram(latencies));
+    }
+
+    private List<Sample> drive(int concurrency, Duration duration, long maxRequests,
+                               Function<ThreadLocalRandom, HttpRequest> request) throws InterruptedException {
+        var deadline = System.nanoTime() + duration.toNanos();
+        var budget = new AtomicLong(maxRequests);
+        var samples = new ArrayList<Sample>(concurrency);
+        try (var clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < concurrency; i++) {
+                var sample = new Sample();
+                samples.add(sample);
+                clients.submit(() -> {
+                    var random = ThreadLocalRandom.current();
+                    while (System.nanoTime() < deadline && budget.getAndDecrement() > 0) {
+                        sample.record(send(request.apply(random)));
+                    }
+                });
+            }
+        }
+        return samples;
+    }
+
+    private long send(HttpRequest request) {
+        var start = System.nanoTime();
+        try {
+            var response = client.send(request, HttpResponse.BodyHandlers.discarding());
+            return response.statusCode() < 400 ? System.nanoTime() - start : -1;
+        } catch (Exception e) {
+            return -1;
+        }
+    }
+
+    private static double percentile(LongArrayList sorted, double quantile) {
+        if (sorted.isEmpty()) {
+            return Double.NaN;
+        }
+        var index = (int) Math.ceil(quantile * sorted.size()) - 1;
+        return sorted.getLong(Math.max(0, index)) / 1e6;
+    }
+
+    private static long[] histogram(LongArrayList latencies) {
+        var counts = new long[BUCKET_BOUNDS_MILLIS.length + 1];
+        for (int i = 0; i < latencies.size(); i++) {
+            var millis = latencies.getLong(i) / 1_000_000.0;
+            int bucket = 0;
+            while (bucket < BUCKET_BOUNDS_MILLIS.length && millis >= BUCKET_BOUNDS_MILLIS[bucket]) {
+                bucket++;
+            }
+            counts[bucket]++;
+        }
+        return counts;
+    }
+
+    private static final class Sample {
+        private final LongArrayList latencies = new LongArrayList();
+        private long errors;
+
+        void record(long latencyNanos) {
+            if (latencyNanos < 0) {
+                errors++;
+            } else {
+                latencies.add(latencyNanos);
+            }
+        }
+    }
+}
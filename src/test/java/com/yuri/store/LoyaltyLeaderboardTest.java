@@ -0,0 +1,124 @@
+package com.yuri.store.services;
+
+import com.yuri.store.dtos.LeaderboardEntryDto;
+import com.yuri.store.dtos.LoyaltyPointsDto;
+import com.yuri.store.events.LoyaltyPointsChangedEvent;
+import com.yuri.store.events.UserDeletedEvent;
+import com.yuri.store.repositories.ProfileRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class LoyaltyLeaderboardTest {
+
+    private LoyaltyLeaderboard leaderboard;
+
+    @BeforeEach
+    void setUp() {
+        leaderboard = new LoyaltyLeaderboard(
+                mock(ProfileRepository.class), accumulator(), mock(PlatformTransactionManager.class));
+    }
+
+    private static LoyaltyPointsAccumulator accumulator() {
+        var accumulator = mock(LoyaltyPointsAccumulator.class);
+        doAnswer(invocation -> {
+            invocation.<Runnable>getArgument(0).run();
+            return null;
+        }).when(accumulator).withoutFlushing(any());
+        return accumulator;
+    }
+
+    private List<Long> userIds(List<LeaderboardEntryDto> entries) {
+        return entries.stream().map(LeaderboardEntryDto::getUserId).toList();
+    }
+
+    @Test
+    void testTopOrdersByPointsThenUserId() {
+        leaderboard.put(1, 50);
+        leaderboard.put(2, 80);
+        leaderboard.put(3, 50);
+        leaderboard.put(4, 10);
+
+        var top = leaderboard.top(3);
+
+        assertEquals(List.of(2L, 1L, 3L), userIds(top));
+        assertEquals(List.of(1L, 2L, 3L), top.stream().map(LeaderboardEntryDto::getRank).toList());
+        assertEquals(4, leaderboard.top(10).size());
+    }
+
+    @Test
+    void testRankFollowsPointChangesAndDeletion() {
+        leaderboard.put(1, 50);
+        leaderboard.put(2, 80);
+        leaderboard.put(3, 20);
+        assertEquals(3, leaderboard.rankOf(3).getRank());
+
+        // O usuário 3 ganha 100 pontos no flush e passa para o topo
+        leaderboard.onLoyaltyPointsChanged(new LoyaltyPointsChangedEvent(Map.of(3L, 100L, 5L, 1L)));
+        assertEquals(1, leaderboard.rankOf(3).getRank());
+        assertEquals(120, leaderboard.rankOf(3).getPoints());
+        assertEquals(4, leaderboard.rankOf(5).getRank());
+
+        leaderboard.onUserDeleted(new UserDeletedEvent(3L));
+        assertNull(leaderboard.rankOf(3));
+        assertEquals(List.of(2L, 1L, 5L), userIds(leaderboard.top(10)));
+    }
+
+    @Test
+    void testMatchesSortedListUnderRandomUpdates() {
+        var random = new Random(42);
+        Map<Long, Long> pontos = new HashMap<>();
+        for (int i = 0; i < 5000; i++) {
+            long userId = random.nextInt(500);
+            if (random.nextInt(10) == 0) {
+                pontos.remove(userId);
+                leaderboard.remove(userId);
+            } else {
+                long points = random.nextInt(200);
+                pontos.put(userId, points);
+                leaderboard.put(userId, points);
+            }
+        }
+
+        var esperado = pontos.entrySet().stream()
+                .sorted(Comparator.<Map.Entry<Long, Long>>comparingLong(Map.Entry::getValue).reversed()
+                        .thenComparing(Map.Entry::getKey))
+                .map(Map.Entry::getKey)
+                .toList();
+        assertEquals(esperado, userIds(leaderboard.top(esperado.size() + 10)));
+        for (int i = 0; i < esperado.size(); i++) {
+            assertEquals(i + 1, leaderboard.rankOf(esperado.get(i)).getRank());
+        }
+    }
+
+    @Test
+    void testRebuildSwapsInCompleteRankingAndKeepsDeletions() {
+        var repository = mock(ProfileRepository.class);
+        leaderboard = new LoyaltyLeaderboard(repository, accumulator(), mock(PlatformTransactionManager.class));
+        leaderboard.put(9, 999);
+        when(repository.streamLoyaltyPoints()).thenAnswer(invocation -> {
+            // Durante a leitura o ranking antigo continua inteiro, e um usuário é excluído
+            assertEquals(List.of(9L), userIds(leaderboard.top(10)));
+            leaderboard.onUserDeleted(new UserDeletedEvent(2L));
+            return Stream.of(new LoyaltyPointsDto(1L, 10), new LoyaltyPointsDto(2L, 50), new LoyaltyPointsDto(3L, 30));
+        });
+
+        leaderboard.rebuild();
+
+        assertEquals(List.of(3L, 1L), userIds(leaderboard.top(10)));
+        assertNull(leaderboard.rankOf(9));
+    }
+}
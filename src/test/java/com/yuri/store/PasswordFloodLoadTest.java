@@ -0,0 +1,134 @@
+package com.yuri.store.benchmark;
+
+import com.yuri.store.entities.Product;
+import com.yuri.store.entities.User;
+import com.yuri.store.repositories.ProductRepository;
+import com.yuri.store.repositories.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Measures GET /products/{id} alone and again while a flood of password changes runs with real
+ * BCrypt cost. Hashing runs on its own bounded pool, so product latency should hold steady and
+ * the flood's overflow shows up as 503s in its error count instead.
+ *
+ * <p>Run with {@code mvn test -Pbenchmark -Dtest=PasswordFloodLoadTest}; concurrency and duration can be
+ * overridden with {@code -Dbenchmark.concurrency} and {@code -Dbenchmark.seconds}.
+ */
+@Tag("benchmark")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+    "spring.jpa.show-sql=false",
+    "logging.level.org.hibernate.SQL=WARN",
+    "logging.level.org.hibernate.orm.jdbc.bind=WARN",
+    "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN",
+    "store.passwords.bcrypt-strength=10"
+})
+public class PasswordFloodLoadTest {
+    private static final int CONCURRENCY = Integer.getInteger("benchmark.concurrency", 32);
+    private static final Duration WARMUP = Duration.ofSeconds(Integer.getInteger("benchmark.warmup-seconds", 3));
+    private static final Duration DURATION = Duration.ofSeconds(Integer.getInteger("benchmark.seconds", 10));
+    private static final int PRODUCTS = 5_000;
+    private static final int USERS = 500;
+    private static final String PASSWORD = "senha123";
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private final List<Long> productIds = new ArrayList<>();
+    private final List<Long> userIds = new ArrayList<>();
+
+    @BeforeEach
+    void seed() {
+        productRepository.deleteAll();
+        userRepository.deleteAll();
+
+        var products = new ArrayList<Product>(PRODUCTS);
+        for (int i = 0; i < PRODUCTS; i++) {
+            products.add(Product.builder()
+                    .name("Produto " + i)
+                    .price(BigDecimal.valueOf(10 + i % 990))
+                    .build());
+        }
+        productRepository.saveAll(products).forEach(product -> productIds.add(product.getId()));
+
+        var users = new ArrayList<User>(USERS);
+        for (int i = 0; i < USERS; i++) {
+            var user = new User();
+            user.setName("Usuário " + i);
+            user.setEmail("senha" + i + "@test.com");
+            user.setPassword(PASSWORD);
+            users.add(user);
+        }
+        userRepository.saveAll(users).forEach(user -> userIds.add(user.getId()));
+    }
+
+    @Test
+    void productLatencyHoldsDuringPasswordFlood() throws Exception {
+        var driver = new LoadDriver();
+
+        var baseline = driver.run("GET /products/{id}", CONCURRENCY, WARMUP, DURATION, this::getProduct);
+
+        // A primeira troca migra a senha em texto puro; as seguintes verificam e gravam BCrypt
+        var flood = CompletableFuture.supplyAsync(() -> {
+            try {
+                return driver.run("POST change-password (flood)", CONCURRENCY * 4, Duration.ZERO,
+                        WARMUP.plus(DURATION), random -> changePassword(userIds.get(random.nextInt(userIds.size()))));
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        var underFlood = driver.run("GET /products/{id} during flood", CONCURRENCY, WARMUP, DURATION, this::getProduct);
+        var floodResult = flood.join();
+
+        for (var result : List.of(baseline, underFlood, floodResult)) {
+            System.out.println(result.format());
+            System.out.println(result.formatHistogram());
+        }
+        System.out.printf("p99 during flood / baseline: %.2fx%n", underFlood.p99Millis() / baseline.p99Millis());
+
+        assertTrue(baseline.requests() > 0);
+        assertTrue(underFlood.requests() > 0);
+        assertTrue(floodResult.requests() > 0);
+    }
+
+    private HttpRequest getProduct(ThreadLocalRandom random) {
+        return HttpRequest.newBuilder(uri("/products/" + productIds.get(random.nextInt(productIds.size())))).GET().build();
+    }
+
+    private HttpRequest changePassword(long userId) {
+        var body = "{\"oldPassword\": \"" + PASSWORD + "\", \"newPassword\": \"" + PASSWORD + "\"}";
+        return HttpRequest.newBuilder(uri("/users/" + userId + "/change-password"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+}
@@ -0,0 +1,95 @@
+package com.yuri.store.services;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PasswordHasherTest {
+
+    private PasswordHasher hasher(int strength, int threads, int queueCapacity, Duration timeout) {
+        return hasher(strength, threads, queueCapacity, timeout, Duration.ofSeconds(60));
+    }
+
+    private PasswordHasher hasher(int strength, int threads, int queueCapacity, Duration timeout, Duration batchTimeout) {
+        return new PasswordHasher(strength, threads, queueCapacity, timeout, batchTimeout, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void testHashesVerifyAndLegacyPlainTextStillMatches() {
+        var hasher = hasher(4, 1, 8, Duration.ofSeconds(5));
+
+        var hash = hasher.encode("senha123");
+        assertTrue(hash.startsWith("{bcrypt}"));
+        assertTrue(hasher.matches("senha123", hash));
+        assertFalse(hasher.matches("senhaErrada", hash));
+
+        // Linha gravada antes do hash: texto puro, sem prefixo
+        assertTrue(hasher.matches("senha123", "senha123"));
+        assertFalse(hasher.matches("senhaErrada", "senha123"));
+        assertNull(hasher.encode(null));
+        hasher.shutdown();
+    }
+
+    @Test
+    void testSaturatedPoolRejectsInsteadOfQueueingForever() throws Exception {
+        // Uma thread, fila de um e hashes de ~1s: o que não cabe na fila é recusado na hora,
+        // o que coube estoura o timeout, e ninguém fica esperando o hash terminar
+        var hasher = hasher(14, 1, 1, Duration.ofMillis(200));
+        var rejected = new AtomicInteger();
+        var start = new CountDownLatch(1);
+        try (var clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 8; i++) {
+                clients.submit(() -> {
+                    start.await();
+                    try {
+                        hasher.encode("senha123");
+                    } catch (RejectedExecutionException e) {
+                        rejected.incrementAndGet();
+                    }
+                    return null;
+                });
+            }
+            start.countDown();
+        }
+
+        assertEquals(8, rejected.get());
+        hasher.shutdown();
+    }
+
+    @Test
+    void testEncodeAllUsesEveryThreadAndLeavesQueueFree() {
+        // Duas threads e fila de um: o lote inteiro passa sem nunca estourar a fila
+        var hasher = hasher(4, 2, 1, Duration.ofSeconds(5));
+        var senhas = IntStream.range(0, 20).mapToObj(i -> "senha" + i).toList();
+
+        var hashes = hasher.encodeAll(senhas);
+
+        assertEquals(20, hashes.length);
+        for (int i = 0; i < hashes.length; i++) {
+            assertTrue(hasher.matches("senha" + i, hashes[i]));
+        }
+        hasher.shutdown();
+    }
+
+    @Test
+    void testEncodeAllLeavesUnfinishedHashesNullAtTheDeadline() {
+        // Hashes de ~1s e prazo de 300ms para o lote: nenhum termina, nenhum fica preso
+        var hasher = hasher(14, 1, 1, Duration.ofSeconds(5), Duration.ofMillis(300));
+
+        var started = System.nanoTime();
+        var hashes = hasher.encodeAll(List.of("a", "b", "c"));
+
+        assertArrayEquals(new String[3], hashes);
+        assertTrue(Duration.ofNanos(System.nanoTime() - started).toMillis() < 1000);
+        hasher.shutdown();
+    }
+}
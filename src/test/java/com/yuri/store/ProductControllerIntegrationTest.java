@@ -4,8 +4,12 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.yuri.store.dtos.ProductDto;
 import com.yuri.store.entities.Category;
 import com.yuri.store.entities.Product;
+import com.yuri.store.pagination.ProductCursor;
+import com.yuri.store.pagination.ProductSort;
 import com.yuri.store.repositories.CategoryRepository;
 import com.yuri.store.repositories.ProductRepository;
+import com.yuri.store.sql.QueryBudget;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -13,18 +17,26 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
 
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @SpringBootTest
 @AutoConfigureMockMvc
 @ActiveProfiles("test")
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.yuri.store.sql.QueryBudget")
 public class ProductControllerIntegrationTest {
 
     @Autowired
@@ -39,6 +51,12 @@ public class ProductControllerIntegrationTest {
     @Autowired
     private CategoryRepository categoryRepository;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
     private Category testCategory;
     private Product testProduct;
     private ProductDto productDto;
@@ -81,8 +99,8 @@ public class ProductControllerIntegrationTest {
         // Listar todos os produtos
         mockMvc.perform(get("/products"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$", hasSize(2)))
-                .andExpect(jsonPath("$[*].name", hasItems("Notebook Dell", "Mouse Logitech")));
+                .andExpect(jsonPath("$.items", hasSize(2)))
+                .andExpect(jsonPath("$.items[*].name", hasItems("Notebook Dell", "Mouse Logitech")));
     }
 
     // Teste 7: Listar produtos por categoria específica
@@ -105,17 +123,17 @@ public class ProductControllerIntegrationTest {
         mockMvc.perform(get("/products")
                 .param("categoryId", String.valueOf(testCategory.getId())))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$", hasSize(1)))
-                .andExpect(jsonPath("$[0].name", equalTo("Notebook Dell")))
-                .andExpect(jsonPath("$[0].category.name", equalTo("Eletrônicos")));
+                .andExpect(jsonPath("$.items", hasSize(1)))
+                .andExpect(jsonPath("$.items[0].name", equalTo("Notebook Dell")))
+                .andExpect(jsonPath("$.items[0].category.name", equalTo("Eletrônicos")));
 
         // Listar produtos da categoria Livros
         mockMvc.perform(get("/products")
                 .param("categoryId", String.valueOf(outraCategoria.getId())))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$", hasSize(1)))
-                .andExpect(jsonPath("$[0].name", equalTo("Clean Code")))
-                .andExpect(jsonPath("$[0].category.name", equalTo("Livros")));
+                .andExpect(jsonPath("$.items", hasSize(1)))
+                .andExpect(jsonPath("$.items[0].name", equalTo("Clean Code")))
+                .andExpect(jsonPath("$.items[0].category.name", equalTo("Livros")));
     }
 
     // Teste 8: Atualizar produto e verificar persistência com categoria
@@ -179,6 +197,467 @@ public class ProductControllerIntegrationTest {
         // Verificar que foi removido da lista
         mockMvc.perform(get("/products"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$", hasSize(0)));
+                .andExpect(jsonPath("$.items", hasSize(0)));
+    }
+
+    // Teste 11: Paginar por cursor ordenando por preço
+    @Test
+    void testPaginateProductsByPriceWithCursor() throws Exception {
+        for (int i = 1; i <= 4; i++) {
+            productRepository.save(Product.builder()
+                    .name("Cabo " + i)
+                    .description("Cabo USB")
+                    .price(new BigDecimal("10.00"))
+                    .category(testCategory)
+                    .build());
+        }
+
+        MvcResult firstPage = mockMvc.perform(get("/products")
+                .param("sort", "price")
+                .param("limit", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(3)))
+                .andExpect(jsonPath("$.items[*].name", contains("Cabo 1", "Cabo 2", "Cabo 3")))
+                .andExpect(jsonPath("$.nextCursor", notNullValue()))
+                .andReturn();
+
+        String cursor = objectMapper.readTree(firstPage.getResponse().getContentAsString())
+                .get("nextCursor").asText();
+
+        mockMvc.perform(get("/products")
+                .param("sort", "price")
+                .param("limit", "3")
+                .param("after", cursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[*].name", contains("Cabo 4", "Notebook Dell")))
+                .andExpect(jsonPath("$.nextCursor", nullValue()));
+    }
+
+    // Teste 12: Cursor inválido retorna erro
+    @Test
+    void testGetProductsWithInvalidCursorReturnsError() throws Exception {
+        mockMvc.perform(get("/products")
+                .param("after", "nao-e-um-cursor"))
+                .andExpect(status().isBadRequest());
+    }
+
+    // Teste 13: Exportar catálogo em NDJSON
+    @Test
+    void testExportProductsAsNdjson() throws Exception {
+        MvcResult asyncResult = mockMvc.perform(get("/products/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        MvcResult result = mockMvc.perform(asyncDispatch(asyncResult))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn();
+
+        String[] lines = result.getResponse().getContentAsString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(1, lines.length);
+        var exported = objectMapper.readTree(lines[0]);
+        assertEquals("Notebook Dell", exported.get("name").asText());
+        assertEquals("Eletrônicos", exported.get("category").get("name").asText());
+    }
+
+    // Teste 14: Inserir produtos em lote com uma linha inválida
+    @Test
+    void testCreateProductsInBatchReportsPerRowResults() throws Exception {
+        ProductDto invalid = new ProductDto();
+        invalid.setName("Sem categoria");
+        invalid.setDescription("Categoria inexistente");
+        invalid.setPrice(new BigDecimal("1.00"));
+        invalid.setCategoryId((byte) 99);
+
+        ProductDto teclado = new ProductDto();
+        teclado.setName("Teclado");
+        teclado.setDescription("Teclado mecânico");
+        teclado.setPrice(new BigDecimal("300.00"));
+        teclado.setCategoryId(testCategory.getId());
+
+        mockMvc.perform(post("/products/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(List.of(productDto, invalid, teclado))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(3)))
+                .andExpect(jsonPath("$[0].status", equalTo(201)))
+                .andExpect(jsonPath("$[0].id", notNullValue()))
+                .andExpect(jsonPath("$[1].status", equalTo(400)))
+                .andExpect(jsonPath("$[1].error", equalTo("Unknown category")))
+                .andExpect(jsonPath("$[2].status", equalTo(201)));
+
+        assertEquals(3, productRepository.count());
+    }
+
+    // Teste 15: Inserir produtos em lote via NDJSON
+    @Test
+    void testCreateProductsInBatchFromNdjson() throws Exception {
+        String body = objectMapper.writeValueAsString(productDto) + "\n"
+                + objectMapper.writeValueAsString(productDto) + "\n";
+
+        mockMvc.perform(post("/products/batch")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].status", contains(201, 201)));
+
+        assertEquals(3, productRepository.count());
+    }
+
+    // Teste 16: Buscar produto criado ignorando acentos
+    @Test
+    void testSearchFindsCreatedProductIgnoringAccents() throws Exception {
+        ProductDto camera = new ProductDto();
+        camera.setName("Câmera Fotográfica");
+        camera.setDescription("Câmera com lente intercambiável");
+        camera.setPrice(new BigDecimal("4200.00"));
+        camera.setCategoryId(testCategory.getId());
+
+        MvcResult created = mockMvc.perform(post("/products")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(camera)))
+                .andExpect(status().isCreated())
+                .andReturn();
+        long id = objectMapper.readTree(created.getResponse().getContentAsString()).get("id").asLong();
+
+        mockMvc.perform(get("/products/search").param("q", "camera fotografica"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id", equalTo((int) id)))
+                .andExpect(jsonPath("$[0].name", equalTo("Câmera Fotográfica")));
+
+        mockMvc.perform(delete("/products/{id}", id))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/products/search").param("q", "camera"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].id", not(hasItem((int) id))));
+    }
+
+    // Teste 17: Filtrar por várias categorias e faixa de preço com contagens por faceta
+    @Test
+    void testFilterByCategoriesAndPriceReturnsFacetCounts() throws Exception {
+        Category livros = new Category("Livros");
+        categoryRepository.save(livros);
+        Category roupas = new Category("Roupas");
+        categoryRepository.save(roupas);
+
+        ProductDto livro = new ProductDto();
+        livro.setName("Clean Code");
+        livro.setDescription("Livro sobre código limpo");
+        livro.setPrice(new BigDecimal("80.00"));
+        livro.setCategoryId(livros.getId());
+
+        ProductDto camiseta = new ProductDto();
+        camiseta.setName("Camiseta");
+        camiseta.setDescription("Camiseta de algodão");
+        camiseta.setPrice(new BigDecimal("60.00"));
+        camiseta.setCategoryId(roupas.getId());
+
+        mockMvc.perform(post("/products/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(List.of(productDto, livro, camiseta))))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/products")
+                .param("categoryId", String.valueOf(testCategory.getId()), String.valueOf(livros.getId()))
+                .param("minPrice", "50")
+                .param("maxPrice", "200"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[*].name", containsInAnyOrder("Mouse Logitech", "Clean Code")))
+                .andExpect(jsonPath("$.facets.total", equalTo(2)))
+                .andExpect(jsonPath("$.facets.categories[?(@.categoryId == " + roupas.getId() + ")].count", contains(1)))
+                .andExpect(jsonPath("$.facets.priceBuckets[?(@.minPrice == 50.00)].count", contains(1)))
+                .andExpect(jsonPath("$.facets.priceBuckets[?(@.minPrice == 100.00)].count", contains(1)))
+                .andExpect(jsonPath("$.facets.priceBuckets[?(@.minPrice == 2500.00)].count", contains(1)));
+    }
+
+    // Teste 18: GET condicional com If-None-Match retorna 304
+    @Test
+    void testConditionalGetReturnsNotModified() throws Exception {
+        String etag = mockMvc.perform(get("/products/{id}", testProduct.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"0\""))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/products/{id}", testProduct.getId())
+                .header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        String listEtag = mockMvc.perform(get("/products"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/products").header("If-None-Match", listEtag))
+                .andExpect(status().isNotModified());
+
+        // Qualquer escrita muda o ETag da listagem
+        mockMvc.perform(post("/products")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(productDto)))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(get("/products").header("If-None-Match", listEtag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(2)));
+    }
+
+    // Teste 19: Atualizar com If-Match desatualizado retorna 412 e não perde a alteração anterior
+    @Test
+    void testUpdateWithStaleIfMatchFails() throws Exception {
+        ProductDto updateDto = new ProductDto();
+        updateDto.setName("Notebook Dell XPS");
+        updateDto.setDescription("Notebook 15 polegadas");
+        updateDto.setPrice(new BigDecimal("3000.00"));
+        updateDto.setCategoryId(testCategory.getId());
+
+        mockMvc.perform(put("/products/{id}", testProduct.getId())
+                .header("If-Match", "\"0\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(updateDto)))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1\""));
+
+        updateDto.setName("Notebook Concorrente");
+        mockMvc.perform(put("/products/{id}", testProduct.getId())
+                .header("If-Match", "\"0\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(updateDto)))
+                .andExpect(status().isPreconditionFailed());
+
+        mockMvc.perform(delete("/products/{id}", testProduct.getId())
+                .header("If-Match", "\"0\""))
+                .andExpect(status().isPreconditionFailed());
+
+        mockMvc.perform(get("/products/{id}", testProduct.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1\""))
+                .andExpect(jsonPath("$.name", equalTo("Notebook Dell XPS")));
+
+        mockMvc.perform(get("/products/search").param("q", "xps"))
+                .andExpect(jsonPath("$[0].id", equalTo(testProduct.getId().intValue())));
+
+        mockMvc.perform(delete("/products/{id}", testProduct.getId())
+                .header("If-Match", "\"1\""))
+                .andExpect(status().isNoContent());
+    }
+
+    // Teste 20: Métricas de SQL por requisição marcadas por endpoint e status
+    @Test
+    void testRecordsSqlMetricsPerEndpoint() throws Exception {
+        mockMvc.perform(get("/products").param("sort", "price"))
+                .andExpect(status().isOk());
+
+        var statements = meterRegistry.get("store.http.sql.statements")
+                .tag("uri", "/products")
+                .tag("method", "GET")
+                .tag("status", "200")
+                .summary();
+        assertTrue(statements.count() >= 1);
+        assertTrue(statements.totalAmount() >= 1);
+        assertTrue(meterRegistry.get("store.http.sql.time").tag("uri", "/products").timer().count() >= 1);
+        assertTrue(meterRegistry.get("hibernate.entities.loads").functionCounter().count() >= 1);
+    }
+
+    // Teste 21: Orçamento de consultas nas leituras com 1.000 produtos
+    @Test
+    void testReadEndpointsStayWithinQueryBudget() throws Exception {
+        List<Product> produtos = new ArrayList<>();
+        for (int i = 1; i < 1000; i++) {
+            produtos.add(Product.builder()
+                    .name("Produto " + i)
+                    .description("Produto de carga " + i)
+                    .price(BigDecimal.valueOf(i))
+                    .category(testCategory)
+                    .build());
+        }
+        productRepository.saveAll(produtos);
+        var id = testProduct.getId();
+
+        QueryBudget.atMost(1, () -> mockMvc.perform(get("/products").param("limit", "500")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(500)))
+                .andExpect(jsonPath("$.items[499].category.name", equalTo("Eletrônicos")));
+        QueryBudget.atMost(1, () -> mockMvc.perform(get("/products")
+                        .param("sort", "price")
+                        .param("categoryId", String.valueOf(testCategory.getId()))
+                        .param("limit", "500")))
+                .andExpect(jsonPath("$.items", hasSize(500)));
+        QueryBudget.atMost(1, () -> mockMvc.perform(get("/products")
+                        .param("categoryId", String.valueOf(testCategory.getId()))
+                        .param("minPrice", "100")
+                        .param("limit", "500")))
+                .andExpect(jsonPath("$.items", hasSize(500)));
+        QueryBudget.atMost(1, () -> mockMvc.perform(get("/products/{id}", id).header("If-None-Match", "\"0\"")))
+                .andExpect(status().isNotModified());
+        QueryBudget.atMost(1, () -> mockMvc.perform(get("/products/{id}", id)))
+                .andExpect(status().isOk());
+        QueryBudget.atMost(0, () -> mockMvc.perform(get("/products/{id}", id)))
+                .andExpect(status().isOk());
+        QueryBudget.atMost(0, () -> mockMvc.perform(get("/products/search").param("q", "produto")))
+                .andExpect(status().isOk());
+        QueryBudget.atMost(1, () -> {
+            MvcResult started = mockMvc.perform(get("/products/export")).andReturn();
+            return mockMvc.perform(asyncDispatch(started));
+        }).andExpect(status().isOk());
+
+        String etag = mockMvc.perform(get("/products")).andReturn().getResponse().getHeader("ETag");
+        QueryBudget.atMost(0, () -> mockMvc.perform(get("/products").header("If-None-Match", etag)))
+                .andExpect(status().isNotModified());
+    }
+
+    // Teste 22: Orçamento de consultas nas escritas
+    @Test
+    void testWriteEndpointsStayWithinQueryBudget() throws Exception {
+        var id = testProduct.getId();
+        productDto.setCategoryId(testCategory.getId());
+
+        QueryBudget.atMost(2, () -> mockMvc.perform(post("/products")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(productDto))))
+                .andExpect(status().isCreated());
+        QueryBudget.atMost(2, () -> mockMvc.perform(put("/products/{id}", id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(productDto))))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1\""));
+        QueryBudget.atMost(1, () -> mockMvc.perform(put("/products/{id}", id)
+                        .header("If-Match", "\"1\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(productDto))))
+                .andExpect(status().isOk());
+
+        List<ProductDto> lote = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            lote.add(productDto);
+        }
+        QueryBudget.atMost(4, () -> mockMvc.perform(post("/products/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(lote))))
+                .andExpect(status().isOk());
+
+        QueryBudget.atMost(1, () -> mockMvc.perform(delete("/products/{id}", id)))
+                .andExpect(status().isNoContent());
+    }
+
+    // Teste 23: Contagens e preços por categoria acompanham criação, troca de categoria e exclusão
+    @Test
+    void testCategoryCountsFollowProductWrites() throws Exception {
+        Category livros = new Category("Livros");
+        categoryRepository.save(livros);
+
+        MvcResult createResult = mockMvc.perform(post("/products")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(productDto)))
+                .andExpect(status().isCreated())
+                .andReturn();
+        long id = objectMapper.readTree(createResult.getResponse().getContentAsString()).get("id").asLong();
+
+        QueryBudget.atMost(0, () -> mockMvc.perform(get("/categories")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].name", equalTo("Eletrônicos")))
+                .andExpect(jsonPath("$[0].productCount", equalTo(2)))
+                .andExpect(jsonPath("$[1].name", equalTo("Livros")))
+                .andExpect(jsonPath("$[1].productCount", equalTo(0)));
+        QueryBudget.atMost(0, () -> mockMvc.perform(get("/categories/price-stats")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].count", equalTo(2)))
+                .andExpect(jsonPath("$[0].min", equalTo(150.00)))
+                .andExpect(jsonPath("$[0].max", equalTo(2500.00)));
+
+        // Mover o mouse para Livros
+        productDto.setCategoryId(livros.getId());
+        mockMvc.perform(put("/products/{id}", id)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(productDto)))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/categories"))
+                .andExpect(jsonPath("$[0].productCount", equalTo(1)))
+                .andExpect(jsonPath("$[1].productCount", equalTo(1)));
+
+        // Excluir o mouse
+        mockMvc.perform(delete("/products/{id}", id))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/categories"))
+                .andExpect(jsonPath("$[0].productCount", equalTo(1)))
+                .andExpect(jsonPath("$[1].productCount", equalTo(0)));
+    }
+
+    // Teste 24: Faixa de preço fora do intervalo de centavos não derruba a listagem
+    @Test
+    void testHugePriceBoundsAreClamped() throws Exception {
+        mockMvc.perform(get("/products")
+                .param("minPrice", "1e30"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(0)))
+                .andExpect(jsonPath("$.facets.total", equalTo(0)));
+
+        mockMvc.perform(get("/products")
+                .param("minPrice", "-1e30")
+                .param("maxPrice", "1e30"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(1)))
+                .andExpect(jsonPath("$.facets.total", equalTo(1)));
+    }
+
+    // Teste 25: Categoria de uma transação desfeita não é aceita nos produtos
+    @Test
+    void testRolledBackCategoryIsNotRegistered() throws Exception {
+        Byte desfeita = transactionTemplate.execute(status -> {
+            Category categoria = categoryRepository.save(new Category("Temporária"));
+            status.setRollbackOnly();
+            return categoria.getId();
+        });
+
+        productDto.setCategoryId(desfeita);
+        mockMvc.perform(post("/products")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(productDto)))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/categories"))
+                .andExpect(jsonPath("$", hasSize(1)));
+    }
+
+    // Teste 26: Cursor forjado com id fora do intervalo de 32 bits não derruba a listagem filtrada
+    @Test
+    void testCraftedCursorOutsideIntRange() throws Exception {
+        ProductDto alem = new ProductDto();
+        alem.setId((long) Integer.MAX_VALUE + 1);
+        mockMvc.perform(get("/products")
+                .param("minPrice", "0")
+                .param("after", ProductCursor.of(ProductSort.ID, alem).encode()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(0)));
+
+        ProductDto negativo = new ProductDto();
+        negativo.setId(-5L);
+        mockMvc.perform(get("/products")
+                .param("minPrice", "0")
+                .param("after", ProductCursor.of(ProductSort.ID, negativo).encode()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(1)));
+    }
+
+    // Teste 27: Renomear a categoria invalida o produto em cache e muda o ETag da listagem
+    @Test
+    void testCategoryRenameRefreshesCachedProducts() throws Exception {
+        mockMvc.perform(get("/products/{id}", testProduct.getId()))
+                .andExpect(jsonPath("$.category.name", equalTo("Eletrônicos")));
+        String etag = mockMvc.perform(get("/products"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        testCategory.setName("Eletrônicos e Informática");
+        categoryRepository.save(testCategory);
+
+        mockMvc.perform(get("/products/{id}", testProduct.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.category.name", equalTo("Eletrônicos e Informática")));
+        mockMvc.perform(get("/products").header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].category.name", equalTo("Eletrônicos e Informática")));
     }
 }
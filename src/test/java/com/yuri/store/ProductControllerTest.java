@@ -1,27 +1,45 @@
 package com.yuri.store.controllers;
 
+import com.yuri.store.dtos.CategoryDto;
 import com.yuri.store.dtos.ProductDto;
 import com.yuri.store.entities.Category;
 import com.yuri.store.entities.Product;
+import com.yuri.store.events.ProductChangedEvent;
 import com.yuri.store.mappers.ProductMapper;
-import com.yuri.store.repositories.CategoryRepository;
+import com.yuri.store.pagination.ProductCursor;
+import com.yuri.store.pagination.ProductSort;
+import com.yuri.store.repositories.ProductPageQuery;
 import com.yuri.store.repositories.ProductRepository;
+import com.yuri.store.services.CategoryRegistry;
+import com.yuri.store.services.ProductBatchService;
+import com.yuri.store.services.ProductCache;
+import com.yuri.store.services.ProductCatalogRevision;
+import com.yuri.store.services.ProductExportService;
+import com.yuri.store.services.ProductFacetIndex;
+import com.yuri.store.services.ProductRecommendationIndex;
+import com.yuri.store.services.ProductSearchIndex;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.util.UriComponentsBuilder;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -34,7 +52,31 @@ public class ProductControllerTest {
     private ProductMapper productMapper;
 
     @Mock
-    private CategoryRepository categoryRepository;
+    private CategoryRegistry categoryRegistry;
+
+    @Mock
+    private ProductExportService productExportService;
+
+    @Spy
+    private ProductCache productCache = new ProductCache(100, Duration.ofMinutes(1), new SimpleMeterRegistry());
+
+    @Mock
+    private ProductBatchService productBatchService;
+
+    @Mock
+    private ProductSearchIndex productSearchIndex;
+
+    @Mock
+    private ProductFacetIndex productFacetIndex;
+
+    @Mock
+    private ProductRecommendationIndex productRecommendationIndex;
+
+    @Mock
+    private ProductCatalogRevision productCatalogRevision;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
 
     @InjectMocks
     private ProductController productController;
@@ -54,6 +96,7 @@ public class ProductControllerTest {
                 .description("Notebook gamer")
                 .price(new BigDecimal("2500.00"))
                 .category(testCategory)
+                .version(0L)
                 .build();
 
         testProductDto = new ProductDto();
@@ -62,32 +105,92 @@ public class ProductControllerTest {
         testProductDto.setDescription("Notebook gamer");
         testProductDto.setPrice(new BigDecimal("2500.00"));
         testProductDto.setCategoryId((byte) 1);
+        testProductDto.setVersion(0L);
     }
 
     @Test
     void testGetAllProductsWithoutCategory() {
-        List<Product> products = List.of(testProduct);
-        when(productRepository.findAllWithCategory()).thenReturn(products);
-        when(productMapper.toDto(testProduct)).thenReturn(testProductDto);
+        when(productRepository.findPage(any(ProductPageQuery.class))).thenReturn(List.of(testProductDto));
 
-        var result = productController.getAllProducts(null);
+        var response = productController.getAllProducts(null, null, null, "", null, 50, null);
 
-        assertNotNull(result);
-        assertEquals(1, result.size());
-        verify(productRepository, times(1)).findAllWithCategory();
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(1, response.getBody().getItems().size());
+        assertNull(response.getBody().getNextCursor());
+        verify(productRepository, times(1)).findPage(argThat(query -> query.getCategoryIds() == null && query.getIds() == null));
     }
 
     @Test
     void testGetAllProductsByCategory() {
-        List<Product> products = List.of(testProduct);
-        when(productRepository.findByCategoryId((byte) 1)).thenReturn(products);
-        when(productMapper.toDto(testProduct)).thenReturn(testProductDto);
+        when(productRepository.findPage(any(ProductPageQuery.class))).thenReturn(List.of(testProductDto));
+
+        when(productFacetIndex.matchingIds(List.of((byte) 1), null, null, null, 51)).thenReturn(List.of(1L));
+
+        var response = productController.getAllProducts(List.of((byte) 1), null, null, "", null, 50, null);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(1, response.getBody().getItems().size());
+        verify(productRepository, times(1)).findPage(argThat(query -> List.of(1L).equals(query.getIds())));
+    }
 
-        var result = productController.getAllProducts((byte) 1);
+    @Test
+    void testGetAllProductsReturnsCursorWhenMoreRowsExist() {
+        var second = new ProductDto(2L, "Mouse", new BigDecimal("50.00"), null, (byte) 1, 0L);
+        when(productRepository.findPage(any(ProductPageQuery.class))).thenReturn(List.of(testProductDto, second));
+
+        var response = productController.getAllProducts(null, null, null, "price", null, 1, null);
+
+        assertEquals(1, response.getBody().getItems().size());
+        var cursor = ProductCursor.decode(response.getBody().getNextCursor());
+        assertNotNull(cursor);
+        assertEquals(ProductSort.PRICE, cursor.getSort());
+        assertEquals(1L, cursor.getId());
+        assertEquals("2500.00", cursor.getValue());
+        verify(productRepository).findPage(argThat(query -> query.getLimit() == 2));
+    }
+
+    @Test
+    void testGetAllProductsResolvesCategoryFromRegistry() {
+        var categoryDto = new CategoryDto((byte) 1, "Eletrônicos");
+        when(productRepository.findPage(any(ProductPageQuery.class))).thenReturn(List.of(testProductDto));
+        when(categoryRegistry.findDto((byte) 1)).thenReturn(categoryDto);
+
+        var response = productController.getAllProducts(null, null, null, "", null, 50, null);
+
+        assertSame(categoryDto, response.getBody().getItems().get(0).getCategory());
+        verifyNoInteractions(productMapper);
+    }
+
+    @Test
+    void testGetAllProductsRejectsCursorFromAnotherSort() {
+        var cursor = new ProductCursor(ProductSort.NAME, 1L, "Notebook").encode();
 
-        assertNotNull(result);
-        assertEquals(1, result.size());
-        verify(productRepository, times(1)).findByCategoryId((byte) 1);
+        var response = productController.getAllProducts(null, null, null, "price", cursor, 50, null);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    void testGetAllProductsSortedByPriceFiltersInDatabase() {
+        when(productRepository.findPage(any(ProductPageQuery.class))).thenReturn(List.of());
+
+        productController.getAllProducts(List.of((byte) 1), new BigDecimal("10.00"), null, "price", null, 50, null);
+
+        verify(productRepository).findPage(argThat(query -> query.getIds() == null
+                && query.getCategoryIds().equals(List.of((byte) 1))
+                && query.getMinPrice().equals(new BigDecimal("10.00"))));
+        verify(productFacetIndex, never()).matchingIds(any(), any(), any(), any(), anyInt());
+    }
+
+    @Test
+    void testGetAllProductsSkipsDatabaseWhenBitmapMatchesNothing() {
+        when(productFacetIndex.matchingIds(null, new BigDecimal("99999.00"), null, null, 51)).thenReturn(List.of());
+
+        var response = productController.getAllProducts(null, new BigDecimal("99999.00"), null, "", null, 50, null);
+
+        assertTrue(response.getBody().getItems().isEmpty());
+        verifyNoInteractions(productRepository);
     }
 
     @Test
@@ -95,7 +198,7 @@ public class ProductControllerTest {
         when(productRepository.findById(1L)).thenReturn(Optional.of(testProduct));
         when(productMapper.toDto(testProduct)).thenReturn(testProductDto);
 
-        var response = productController.getProduct(1L);
+        var response = productController.getProduct(1L, null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(testProductDto, response.getBody());
@@ -105,15 +208,61 @@ public class ProductControllerTest {
     void testGetProductByIdNotFound() {
         when(productRepository.findById(999L)).thenReturn(Optional.empty());
 
-        var response = productController.getProduct(999L);
+        var response = productController.getProduct(999L, null);
 
         assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
     }
 
+    @Test
+    void testGetProductServesRepeatedReadsFromCache() {
+        when(productRepository.findById(1L)).thenReturn(Optional.of(testProduct));
+        when(productMapper.toDto(testProduct)).thenReturn(testProductDto);
+
+        productController.getProduct(1L, null);
+        var response = productController.getProduct(1L, null);
+
+        assertEquals(testProductDto, response.getBody());
+        verify(productRepository, times(1)).findById(1L);
+    }
+
+    @Test
+    void testGetProductDoesNotCacheMisses() {
+        when(productRepository.findById(999L)).thenReturn(Optional.empty());
+
+        productController.getProduct(999L, null);
+        productController.getProduct(999L, null);
+
+        verify(productRepository, times(2)).findById(999L);
+    }
+
+    @Test
+    void testGetProductReturnsNotModifiedFromCachedVersion() {
+        when(productRepository.findById(1L)).thenReturn(Optional.of(testProduct));
+        when(productMapper.toDto(testProduct)).thenReturn(testProductDto);
+        var etag = productController.getProduct(1L, null).getHeaders().getETag();
+
+        var response = productController.getProduct(1L, etag);
+
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertNull(response.getBody());
+        verify(productRepository, never()).findVersionById(any());
+        verify(productRepository, times(1)).findById(1L);
+    }
+
+    @Test
+    void testGetProductReturnsNotModifiedWithoutLoadingEntity() {
+        when(productRepository.findVersionById(1L)).thenReturn(Optional.of(3L));
+
+        var response = productController.getProduct(1L, "\"3\"");
+
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        verify(productRepository, never()).findById(any());
+    }
+
     @Test
     void testCreateProductSuccess() {
         UriComponentsBuilder uriBuilder = UriComponentsBuilder.newInstance();
-        when(categoryRepository.findById((byte) 1)).thenReturn(Optional.of(testCategory));
+        when(categoryRegistry.find((byte) 1)).thenReturn(testCategory);
         when(productMapper.toEntity(testProductDto)).thenReturn(testProduct);
         when(productRepository.save(any(Product.class))).thenReturn(testProduct);
 
@@ -127,7 +276,7 @@ public class ProductControllerTest {
     void testCreateProductInvalidCategory() {
         UriComponentsBuilder uriBuilder = UriComponentsBuilder.newInstance();
         testProductDto.setCategoryId((byte) 999);
-        when(categoryRepository.findById((byte) 999)).thenReturn(Optional.empty());
+        when(categoryRegistry.find((byte) 999)).thenReturn(null);
 
         var response = productController.createProduct(testProductDto, uriBuilder);
 
@@ -136,53 +285,100 @@ public class ProductControllerTest {
 
     @Test
     void testUpdateProductSuccess() {
-        when(categoryRepository.findById((byte) 1)).thenReturn(Optional.of(testCategory));
-        when(productRepository.findById(1L)).thenReturn(Optional.of(testProduct));
-        doNothing().when(productMapper).update(testProductDto, testProduct);
-        when(productRepository.save(any(Product.class))).thenReturn(testProduct);
+        when(categoryRegistry.find((byte) 1)).thenReturn(testCategory);
+        when(productRepository.updateAndGetVersion(1L, "Notebook", "Notebook gamer", new BigDecimal("2500.00"), testCategory))
+                .thenReturn(Optional.of(1L));
 
-        var response = productController.updateProduct(1L, testProductDto);
+        var response = productController.updateProduct(1L, testProductDto, null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
-        verify(productRepository, times(1)).save(any(Product.class));
+        assertEquals("\"1\"", response.getHeaders().getETag());
+        verify(productRepository, never()).findById(any());
+        verify(productRepository, never()).existsById(any());
+        verify(eventPublisher).publishEvent(any(ProductChangedEvent.class));
+    }
+
+    @Test
+    void testUpdateProductIfMatchAppliesConditionalUpdate() {
+        when(categoryRegistry.find((byte) 1)).thenReturn(testCategory);
+        when(productRepository.updateIfVersion(1L, 0L, "Notebook", "Notebook gamer", new BigDecimal("2500.00"), testCategory))
+                .thenReturn(1);
+
+        var response = productController.updateProduct(1L, testProductDto, "\"0\"");
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("\"1\"", response.getHeaders().getETag());
+        verify(productRepository, never()).findById(any());
+        verify(eventPublisher).publishEvent(argThat((Object event) ->
+                event instanceof ProductChangedEvent changed
+                        && changed.getType() == ProductChangedEvent.Type.UPDATED
+                        && changed.getProductId() == 1L));
+    }
+
+    @Test
+    void testUpdateProductIfMatchStaleVersion() {
+        when(categoryRegistry.find((byte) 1)).thenReturn(testCategory);
+        when(productRepository.updateIfVersion(any(), any(), any(), any(), any(), any())).thenReturn(0);
+        when(productRepository.existsById(1L)).thenReturn(true);
+
+        var response = productController.updateProduct(1L, testProductDto, "\"0\"");
+
+        assertEquals(HttpStatus.PRECONDITION_FAILED, response.getStatusCode());
+        verifyNoInteractions(eventPublisher);
     }
 
     @Test
     void testUpdateProductInvalidCategory() {
         testProductDto.setCategoryId((byte) 999);
-        when(categoryRepository.findById((byte) 999)).thenReturn(Optional.empty());
+        when(categoryRegistry.find((byte) 999)).thenReturn(null);
 
-        var response = productController.updateProduct(1L, testProductDto);
+        var response = productController.updateProduct(1L, testProductDto, null);
 
         assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
     }
 
     @Test
     void testUpdateProductNotFound() {
-        when(categoryRepository.findById((byte) 1)).thenReturn(Optional.of(testCategory));
-        when(productRepository.findById(999L)).thenReturn(Optional.empty());
+        when(categoryRegistry.find((byte) 1)).thenReturn(testCategory);
+        when(productRepository.updateAndGetVersion(eq(999L), any(), any(), any(), any())).thenReturn(Optional.empty());
 
-        var response = productController.updateProduct(999L, testProductDto);
+        var response = productController.updateProduct(999L, testProductDto, null);
 
         assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        verify(productRepository, never()).existsById(any());
+        verifyNoInteractions(eventPublisher);
     }
 
     @Test
     void testDeleteProductSuccess() {
-        when(productRepository.findById(1L)).thenReturn(Optional.of(testProduct));
-        doNothing().when(productRepository).delete(testProduct);
+        when(productRepository.removeById(1L)).thenReturn(1);
 
-        var response = productController.deleteProduct(1L);
+        var response = productController.deleteProduct(1L, null);
 
         assertEquals(HttpStatus.NO_CONTENT, response.getStatusCode());
-        verify(productRepository, times(1)).delete(testProduct);
+        verify(productRepository, never()).findById(any());
+        verify(eventPublisher).publishEvent(argThat((Object event) ->
+                event instanceof ProductChangedEvent changed
+                        && changed.getType() == ProductChangedEvent.Type.DELETED
+                        && changed.getProductId() == 1L));
+    }
+
+    @Test
+    void testDeleteProductIfMatchStaleVersion() {
+        when(productRepository.removeIfVersion(1L, 5L)).thenReturn(0);
+        when(productRepository.existsById(1L)).thenReturn(true);
+
+        var response = productController.deleteProduct(1L, "\"5\"");
+
+        assertEquals(HttpStatus.PRECONDITION_FAILED, response.getStatusCode());
+        verifyNoInteractions(eventPublisher);
     }
 
     @Test
     void testDeleteProductNotFound() {
-        when(productRepository.findById(999L)).thenReturn(Optional.empty());
+        when(productRepository.removeById(999L)).thenReturn(0);
 
-        var response = productController.deleteProduct(999L);
+        var response = productController.deleteProduct(999L, null);
 
         assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
     }
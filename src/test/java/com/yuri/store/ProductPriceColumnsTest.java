@@ -0,0 +1,107 @@
+package com.yuri.store.services;
+
+import com.yuri.store.dtos.CategoryPriceStatsDto;
+import com.yuri.store.dtos.ProductPricePoint;
+import com.yuri.store.repositories.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ProductPriceColumnsTest {
+
+    private ProductPriceColumns columns;
+
+    @BeforeEach
+    void setUp() {
+        columns = new ProductPriceColumns(mock(ProductRepository.class), mock(PlatformTransactionManager.class));
+    }
+
+    private void put(long id, int categoryId, String price) {
+        columns.put(new ProductPricePoint(id, (byte) categoryId, new BigDecimal(price)));
+    }
+
+    @Test
+    void testStatsPerCategoryWithPercentiles() {
+        // Categoria 1: preços 1.00 a 100.00; categoria 200 (acima de 127 como TINYINT sem sinal): dois produtos
+        for (long id = 1; id <= 100; id++) {
+            put(id, 1, id + ".00");
+        }
+        put(101, 200, "10.00");
+        put(102, 200, "15.01");
+
+        List<CategoryPriceStatsDto> stats = columns.statsByCategory();
+
+        assertEquals(2, stats.size());
+        var first = stats.get(0);
+        assertEquals((byte) 1, first.getCategoryId());
+        assertEquals(100, first.getCount());
+        assertEquals(new BigDecimal("1.00"), first.getMin());
+        assertEquals(new BigDecimal("100.00"), first.getMax());
+        assertEquals(new BigDecimal("50.50"), first.getAverage());
+        assertEquals(new BigDecimal("50.00"), first.getP50());
+        assertEquals(new BigDecimal("90.00"), first.getP90());
+        assertEquals(new BigDecimal("99.00"), first.getP99());
+
+        var second = stats.get(1);
+        assertEquals((byte) 200, second.getCategoryId());
+        assertEquals(2, second.getCount());
+        assertEquals(new BigDecimal("12.51"), second.getAverage());
+        assertEquals(new BigDecimal("15.01"), second.getMax());
+    }
+
+    @Test
+    void testWritesMoveRowsAndRefreshStats() {
+        put(1, 1, "10.00");
+        put(2, 1, "20.00");
+        put(3, 2, "30.00");
+        assertEquals(2, columns.statsByCategory().size());
+
+        // Trocar preço e categoria, excluir e remover a categoria de um produto
+        put(1, 2, "5.00");
+        columns.remove(3);
+        columns.put(new ProductPricePoint(2L, null, new BigDecimal("20.00")));
+
+        var stats = columns.statsByCategory();
+        assertEquals(1, stats.size());
+        assertEquals((byte) 2, stats.get(0).getCategoryId());
+        assertEquals(1, stats.get(0).getCount());
+        assertEquals(new BigDecimal("5.00"), stats.get(0).getMin());
+
+        columns.remove(1);
+        assertTrue(columns.statsByCategory().isEmpty());
+    }
+
+    @Test
+    void testRebuildSwapsInCompleteColumnsAndKeepsConcurrentWrites() {
+        var repository = mock(ProductRepository.class);
+        columns = new ProductPriceColumns(repository, mock(PlatformTransactionManager.class));
+        put(1, 1, "10.00");
+        when(repository.streamPricePoints()).thenAnswer(invocation -> {
+            // Durante a leitura as estatísticas ainda são as antigas, e chegam escritas novas
+            assertEquals(1, columns.statsByCategory().get(0).getCount());
+            put(2, 1, "99.00");
+            columns.remove(3);
+            return Stream.of(
+                    new ProductPricePoint(2L, (byte) 1, new BigDecimal("20.00")),
+                    new ProductPricePoint(3L, (byte) 1, new BigDecimal("30.00")),
+                    new ProductPricePoint(4L, (byte) 1, new BigDecimal("40.00")));
+        });
+
+        columns.rebuild();
+
+        // O produto 1 não está no banco, o 2 mantém a escrita mais nova e o 3 continua excluído
+        var stats = columns.statsByCategory();
+        assertEquals(1, stats.size());
+        assertEquals(2, stats.get(0).getCount());
+        assertEquals(new BigDecimal("40.00"), stats.get(0).getMin());
+        assertEquals(new BigDecimal("99.00"), stats.get(0).getMax());
+    }
+}
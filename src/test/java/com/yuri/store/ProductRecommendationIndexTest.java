@@ -0,0 +1,115 @@
+package com.yuri.store.services;
+
+import com.yuri.store.dtos.ProductDto;
+import com.yuri.store.dtos.ProductSearchHitDto;
+import com.yuri.store.dtos.WishlistEntry;
+import com.yuri.store.repositories.ProductRepository;
+import com.yuri.store.repositories.UserRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ProductRecommendationIndexTest {
+
+    private ProductRecommendationIndex index;
+    private UserRepository userRepository;
+
+    @BeforeEach
+    void setUp() {
+        var searchIndex = new ProductSearchIndex(mock(ProductRepository.class), mock(EntityManager.class), mock(PlatformTransactionManager.class));
+        for (long id = 1; id <= 5; id++) {
+            searchIndex.index(product(id));
+        }
+        userRepository = mock(UserRepository.class);
+        index = new ProductRecommendationIndex(userRepository, searchIndex, mock(PlatformTransactionManager.class), 2);
+
+        // Usuário 10: produtos 1, 2 e 3; usuário 11: 1 e 2; usuário 12: 1 e 4
+        index.add(10, 1);
+        index.add(10, 2);
+        index.add(10, 3);
+        index.add(11, 1);
+        index.add(11, 2);
+        index.add(12, 1);
+        index.add(12, 4);
+    }
+
+    private ProductDto product(Long id) {
+        ProductDto dto = new ProductDto();
+        dto.setId(id);
+        dto.setName("Produto " + id);
+        dto.setPrice(new BigDecimal("10.00"));
+        dto.setCategoryId((byte) 1);
+        return dto;
+    }
+
+    private List<Long> ids(List<ProductSearchHitDto> hits) {
+        return hits.stream().map(ProductSearchHitDto::getId).toList();
+    }
+
+    @Test
+    void testRelatedOrdersByCoOccurrenceAndKeepsTopK() {
+        var hits = index.related(1, 10);
+
+        // 2 aparece com 1 em dois usuários; 3 e 4 empatam e vence o menor id
+        assertEquals(List.of(2L, 3L), ids(hits));
+        assertEquals(2.0, hits.get(0).getScore());
+        assertEquals("Produto 2", hits.get(0).getName());
+    }
+
+    @Test
+    void testRemovingFromWishlistRanksRowAgain() {
+        index.remove(10, 3);
+        assertEquals(List.of(2L, 4L), ids(index.related(1, 10)));
+
+        index.remove(11, 2);
+        index.remove(10, 2);
+        assertEquals(List.of(4L), ids(index.related(1, 10)));
+        assertTrue(index.related(2, 10).isEmpty());
+    }
+
+    @Test
+    void testRemovingUserAndProduct() {
+        index.removeUser(12);
+        assertEquals(List.of(2L, 3L), ids(index.related(1, 10)));
+        assertTrue(index.related(4, 10).isEmpty());
+
+        index.removeProduct(2);
+        assertEquals(List.of(3L), ids(index.related(1, 10)));
+        assertEquals(List.of(1L), ids(index.related(3, 10)));
+
+        // O usuário 10 não tem mais o produto 2: adicionar o 5 conta só 1 e 3
+        index.add(10, 5);
+        assertEquals(List.of(1L, 3L), ids(index.related(5, 10)));
+    }
+
+    @Test
+    void testLimitAndUnknownProduct() {
+        assertEquals(1, index.related(1, 1).size());
+        assertTrue(index.related(99, 10).isEmpty());
+    }
+
+    @Test
+    void testRebuildMatchesIncrementalUpdates() {
+        when(userRepository.streamWishlistEntries()).thenReturn(Stream.of(
+                new WishlistEntry(10L, 1L), new WishlistEntry(10L, 2L), new WishlistEntry(10L, 3L),
+                new WishlistEntry(11L, 1L), new WishlistEntry(11L, 2L),
+                new WishlistEntry(12L, 1L), new WishlistEntry(12L, 4L)));
+        var incremental = List.of(ids(index.related(1, 10)), ids(index.related(2, 10)), ids(index.related(4, 10)));
+
+        index.rebuild();
+
+        assertEquals(incremental, List.of(ids(index.related(1, 10)), ids(index.related(2, 10)), ids(index.related(4, 10))));
+        index.remove(11, 2);
+        assertEquals(List.of(2L, 3L), ids(index.related(1, 10)));
+        assertEquals(1.0, index.related(1, 10).get(0).getScore());
+    }
+}
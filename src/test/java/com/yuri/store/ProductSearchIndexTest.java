@@ -0,0 +1,84 @@
+package com.yuri.store.services;
+
+import com.yuri.store.dtos.ProductDto;
+import com.yuri.store.dtos.ProductSearchHitDto;
+import com.yuri.store.repositories.ProductRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+public class ProductSearchIndexTest {
+
+    private ProductSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ProductSearchIndex(mock(ProductRepository.class), mock(EntityManager.class), mock(PlatformTransactionManager.class));
+        index.index(product(1L, "Notebook Dell", "Notebook 15 polegadas com tela antirreflexo"));
+        index.index(product(2L, "Mouse sem fio", "Mouse óptico para notebook"));
+        index.index(product(3L, "Livro Clean Code", "Livro sobre código limpo"));
+    }
+
+    private ProductDto product(Long id, String name, String description) {
+        ProductDto dto = new ProductDto();
+        dto.setId(id);
+        dto.setName(name);
+        dto.setDescription(description);
+        dto.setPrice(new BigDecimal("10.00"));
+        dto.setCategoryId((byte) 1);
+        return dto;
+    }
+
+    @Test
+    void testSearchRanksNameMatchesFirst() {
+        var hits = index.search("notebook", 10);
+
+        assertEquals(2, hits.size());
+        assertEquals(1L, hits.get(0).getId());
+        assertEquals(2L, hits.get(1).getId());
+        assertTrue(hits.get(0).getScore() > hits.get(1).getScore());
+    }
+
+    @Test
+    void testSearchIgnoresAccentsAndCase() {
+        var hits = index.search("CODIGO", 10);
+
+        assertEquals(1, hits.size());
+        assertEquals(3L, hits.get(0).getId());
+    }
+
+    @Test
+    void testSearchRespectsLimit() {
+        assertEquals(1, index.search("notebook", 1).size());
+    }
+
+    @Test
+    void testUpdateReplacesIndexedTerms() {
+        index.index(product(2L, "Teclado", "Teclado mecânico"));
+
+        assertTrue(index.search("mouse", 10).isEmpty());
+        assertEquals(2L, index.search("mecanico", 10).get(0).getId());
+    }
+
+    @Test
+    void testRemoveDropsProductAndReusesDocument() {
+        index.remove(1L);
+        index.index(product(4L, "Monitor", "Monitor para notebook"));
+
+        var ids = index.search("notebook", 10).stream().map(ProductSearchHitDto::getId).toList();
+        assertFalse(ids.contains(1L));
+        assertTrue(ids.contains(4L));
+    }
+
+    @Test
+    void testStopWordsAndUnknownTermsReturnNothing() {
+        assertTrue(index.search("de para", 10).isEmpty());
+        assertTrue(index.search("geladeira", 10).isEmpty());
+    }
+}
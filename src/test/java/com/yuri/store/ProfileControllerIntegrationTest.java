@@ -0,0 +1,296 @@
+package com.yuri.store.controllers;
+
+import com.yuri.store.entities.User;
+import com.yuri.store.repositories.ProfileRepository;
+import com.yuri.store.repositories.UserRepository;
+import com.yuri.store.services.LoyaltyLeaderboard;
+import com.yuri.store.services.LoyaltyPointsAccumulator;
+import com.yuri.store.sql.QueryBudget;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+// Flush agendado longo: os testes chamam flush() quando querem. Tetos baixos para testá-los.
+@TestPropertySource(properties = {
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.yuri.store.sql.QueryBudget",
+        "store.loyalty.flush-interval=1h",
+        "store.loyalty.max-points-per-award=500",
+        "store.loyalty.max-pending-points=5000"
+})
+public class ProfileControllerIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProfileRepository profileRepository;
+
+    @Autowired
+    private LoyaltyPointsAccumulator loyaltyPointsAccumulator;
+
+    @Autowired
+    private LoyaltyLeaderboard loyaltyLeaderboard;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private User testUser;
+
+    @BeforeEach
+    void setUp() {
+        loyaltyPointsAccumulator.flush();
+        profileRepository.deleteAll();
+        userRepository.deleteAll();
+        loyaltyLeaderboard.rebuild();
+
+        testUser = new User();
+        testUser.setName("Carla Cliente");
+        testUser.setEmail("carla@test.com");
+        testUser.setPassword("senha123");
+        userRepository.save(testUser);
+    }
+
+    private String pontos(int points) {
+        return "{\"points\": " + points + "}";
+    }
+
+    // Teste 1: Pontos concedidos em paralelo não se perdem e chegam ao banco no flush
+    @Test
+    void testConcurrentAwardsAreFlushedTogether() throws Exception {
+        List<Callable<Void>> tarefas = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            tarefas.add(() -> {
+                for (int j = 0; j < 250; j++) {
+                    loyaltyPointsAccumulator.award(testUser.getId(), 2);
+                }
+                return null;
+            });
+        }
+        try (var executor = Executors.newFixedThreadPool(8)) {
+            for (var resultado : executor.invokeAll(tarefas)) {
+                resultado.get();
+            }
+        }
+
+        // Antes do flush o saldo já inclui os pontos pendentes
+        mockMvc.perform(get("/profiles/{userId}/loyalty-points", testUser.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.points", equalTo(4000)));
+
+        loyaltyPointsAccumulator.flush();
+
+        assertEquals(4000, profileRepository.findLoyaltyPointsById(testUser.getId()).orElseThrow());
+        assertEquals(0, loyaltyPointsAccumulator.pending(testUser.getId()));
+        mockMvc.perform(get("/profiles/{userId}/loyalty-points", testUser.getId()))
+                .andExpect(jsonPath("$.points", equalTo(4000)));
+    }
+
+    // Teste 2: Conceder pontos não consulta o banco; o flush soma ao saldo existente
+    @Test
+    void testAwardIsWriteBehind() throws Exception {
+        QueryBudget.atMost(0, () -> mockMvc.perform(post("/profiles/{userId}/loyalty-points", testUser.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(pontos(10))))
+                .andExpect(status().isAccepted());
+        assertEquals(10.0, meterRegistry.get("store.loyalty.pending.points").gauge().value());
+
+        loyaltyPointsAccumulator.flush();
+        assertEquals(0.0, meterRegistry.get("store.loyalty.pending.points").gauge().value());
+
+        mockMvc.perform(post("/profiles/{userId}/loyalty-points", testUser.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(pontos(5)))
+                .andExpect(status().isAccepted());
+        loyaltyPointsAccumulator.flush();
+
+        assertEquals(15, profileRepository.findLoyaltyPointsById(testUser.getId()).orElseThrow());
+    }
+
+    // Teste 3: Pontos inválidos, usuário inexistente e exclusão de usuário com perfil
+    @Test
+    void testInvalidRequestsAndUserDeletion() throws Exception {
+        mockMvc.perform(post("/profiles/{userId}/loyalty-points", testUser.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(pontos(0)))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/profiles/{userId}/loyalty-points", 999999))
+                .andExpect(status().isNotFound());
+
+        // Pontos de usuário inexistente são aceitos e descartados no flush, com métrica
+        var descartadosAntes = meterRegistry.counter("store.loyalty.dropped.points").count();
+        mockMvc.perform(post("/profiles/{userId}/loyalty-points", 999999)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(pontos(3)))
+                .andExpect(status().isAccepted());
+        loyaltyPointsAccumulator.award(testUser.getId(), 7);
+        loyaltyPointsAccumulator.flush();
+        assertEquals(0, loyaltyPointsAccumulator.pending(999999L));
+        assertEquals(3, meterRegistry.counter("store.loyalty.dropped.points").count() - descartadosAntes);
+        assertEquals(7, profileRepository.findLoyaltyPointsById(testUser.getId()).orElseThrow());
+
+        mockMvc.perform(delete("/users/{id}", testUser.getId()))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(get("/profiles/{userId}/loyalty-points", testUser.getId()))
+                .andExpect(status().isNotFound());
+    }
+
+    // Teste 4: Ranking em memória acompanha os flushes, sem ORDER BY por requisição
+    @Test
+    void testLeaderboardFollowsFlushes() throws Exception {
+        User rival = new User();
+        rival.setName("Diego Rival");
+        rival.setEmail("diego@test.com");
+        rival.setPassword("senha123");
+        userRepository.save(rival);
+
+        loyaltyPointsAccumulator.award(testUser.getId(), 30);
+        loyaltyPointsAccumulator.award(rival.getId(), 50);
+        loyaltyPointsAccumulator.flush();
+
+        QueryBudget.atMost(0, () -> mockMvc.perform(get("/profiles/leaderboard").param("limit", "2")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].userId", equalTo(rival.getId().intValue())))
+                .andExpect(jsonPath("$[0].points", equalTo(50)))
+                .andExpect(jsonPath("$[1].rank", equalTo(2)));
+
+        loyaltyPointsAccumulator.award(testUser.getId(), 25);
+        loyaltyPointsAccumulator.flush();
+
+        QueryBudget.atMost(0, () -> mockMvc.perform(get("/profiles/{userId}/rank", testUser.getId())))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rank", equalTo(1)))
+                .andExpect(jsonPath("$.points", equalTo(55)));
+
+        mockMvc.perform(delete("/users/{id}", testUser.getId()))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(get("/profiles/{userId}/rank", testUser.getId()))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/profiles/{userId}/rank", rival.getId()))
+                .andExpect(jsonPath("$.rank", equalTo(1)));
+    }
+
+    // Teste 5: Tetos por concessão e por usuário pendente devolvem 400
+    @Test
+    void testAwardsOverTheCapsAreRejected() throws Exception {
+        mockMvc.perform(post("/profiles/{userId}/loyalty-points", testUser.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(pontos(Integer.MAX_VALUE)))
+                .andExpect(status().isBadRequest());
+
+        for (int i = 0; i < 10; i++) {
+            mockMvc.perform(post("/profiles/{userId}/loyalty-points", testUser.getId())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(pontos(500)))
+                    .andExpect(status().isAccepted());
+        }
+        mockMvc.perform(post("/profiles/{userId}/loyalty-points", testUser.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(pontos(1)))
+                .andExpect(status().isBadRequest());
+        assertEquals(5000, loyaltyPointsAccumulator.pending(testUser.getId()));
+
+        // Depois do flush o teto vale de novo do zero
+        loyaltyPointsAccumulator.flush();
+        mockMvc.perform(post("/profiles/{userId}/loyalty-points", testUser.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(pontos(1)))
+                .andExpect(status().isAccepted());
+    }
+
+    // Teste 6: Uma linha fora do intervalo da coluna é separada e não trava o flush dos outros
+    @Test
+    void testRowOutOfRangeDoesNotBlockOtherUsers() {
+        User cheio = new User();
+        cheio.setName("Saldo Cheio");
+        cheio.setEmail("cheio@test.com");
+        cheio.setPassword("senha123");
+        userRepository.save(cheio);
+        jdbcTemplate.update("INSERT INTO profiles (id, loyalty_points) VALUES (?, ?)", cheio.getId(), Integer.MAX_VALUE - 10);
+        var rejeitadosAntes = meterRegistry.counter("store.loyalty.rejected.points").count();
+
+        loyaltyPointsAccumulator.award(cheio.getId(), 100);
+        loyaltyPointsAccumulator.award(testUser.getId(), 5);
+        loyaltyPointsAccumulator.flush();
+
+        assertEquals(5, profileRepository.findLoyaltyPointsById(testUser.getId()).orElseThrow());
+        assertEquals(Integer.MAX_VALUE - 10, profileRepository.findLoyaltyPointsById(cheio.getId()).orElseThrow());
+        assertEquals(0, loyaltyPointsAccumulator.pending(cheio.getId()));
+        assertEquals(100, meterRegistry.counter("store.loyalty.rejected.points").count() - rejeitadosAntes);
+
+        // O flush seguinte não tenta de novo a linha separada
+        loyaltyPointsAccumulator.award(testUser.getId(), 3);
+        loyaltyPointsAccumulator.flush();
+        assertEquals(8, profileRepository.findLoyaltyPointsById(testUser.getId()).orElseThrow());
+    }
+
+    // Teste 7: Pontos de um flush em andamento continuam visíveis até o commit
+    @Test
+    void testPointsStayVisibleWhileFlushIsRunning() throws Exception {
+        jdbcTemplate.update("INSERT INTO profiles (id, loyalty_points) VALUES (?, 0)", testUser.getId());
+        loyaltyPointsAccumulator.award(testUser.getId(), 40);
+
+        var travada = new CountDownLatch(1);
+        var liberar = new CountDownLatch(1);
+        try (var executor = Executors.newFixedThreadPool(2)) {
+            // Outra transação segura a linha do perfil, então o UPDATE do flush fica esperando
+            var trava = executor.submit(() -> transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.queryForObject("SELECT loyalty_points FROM profiles WHERE id = ? FOR UPDATE",
+                        Integer.class, testUser.getId());
+                travada.countDown();
+                try {
+                    liberar.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+            travada.await();
+            var flush = executor.submit(loyaltyPointsAccumulator::flush);
+            try {
+                Thread.sleep(200);
+                assertEquals(40, loyaltyPointsAccumulator.pending(testUser.getId()));
+                mockMvc.perform(get("/profiles/{userId}/loyalty-points", testUser.getId()))
+                        .andExpect(jsonPath("$.points", equalTo(40)));
+            } finally {
+                liberar.countDown();
+            }
+            trava.get();
+            flush.get();
+        }
+
+        assertEquals(0, loyaltyPointsAccumulator.pending(testUser.getId()));
+        assertEquals(40, profileRepository.findLoyaltyPointsById(testUser.getId()).orElseThrow());
+    }
+}
@@ -0,0 +1,71 @@
+package com.yuri.store.sql;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Hibernate statement inspector that lets tests put a ceiling on the SQL an action runs, so an
+ * N+1 introduced by walking {@code Product.category}, {@code User.addresses} or
+ * {@code User.favoriteProducts} fails the build. Enabled for a test class with
+ * {@code spring.jpa.properties.hibernate.session_factory.statement_inspector}.
+ *
+ * <pre>
+ * QueryBudget.atMost(1, () -> mockMvc.perform(get("/products")))
+ *         .andExpect(status().isOk());
+ * </pre>
+ */
+public class QueryBudget implements StatementInspector {
+    private static final List<String> STATEMENTS = new ArrayList<>();
+    private static volatile boolean recording;
+
+    @FunctionalInterface
+    public interface Action<T> {
+        T run() throws Exception;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        if (recording) {
+            synchronized (STATEMENTS) {
+                STATEMENTS.add(sql);
+            }
+        }
+        return sql;
+    }
+
+    /**
+     * Runs {@code action} and fails if it issued more than {@code max} SQL statements. A JDBC
+     * batch counts once.
+     */
+    public static <T> T atMost(int max, Action<T> action) throws Exception {
+        var statements = record(action);
+        if (statements.executed.size() > max) {
+            fail("Expected at most " + max + " SQL statements but " + statements.executed.size() + " ran:\n  "
+                    + String.join("\n  ", statements.executed));
+        }
+        return statements.result;
+    }
+
+    private static <T> Recorded<T> record(Action<T> action) throws Exception {
+        synchronized (STATEMENTS) {
+            STATEMENTS.clear();
+        }
+        recording = true;
+        T result;
+        try {
+            result = action.run();
+        } finally {
+            recording = false;
+        }
+        synchronized (STATEMENTS) {
+            return new Recorded<>(result, List.copyOf(STATEMENTS));
+        }
+    }
+
+    private record Recorded<T>(T result, List<String> executed) {
+    }
+}
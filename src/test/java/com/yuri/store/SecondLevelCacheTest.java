@@ -0,0 +1,126 @@
+package com.yuri.store.repositories;
+
+import com.yuri.store.entities.Category;
+import com.yuri.store.entities.Product;
+import com.yuri.store.entities.User;
+import com.yuri.store.services.WishlistService;
+import com.yuri.store.sql.QueryBudget;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.yuri.store.sql.QueryBudget")
+public class SecondLevelCacheTest {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private WishlistService wishlistService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Category categoria;
+    private Product notebook;
+    private Product mouse;
+    private User usuario;
+
+    @BeforeEach
+    void setUp() {
+        userRepository.deleteAll();
+        productRepository.deleteAll();
+        categoryRepository.deleteAll();
+        // O CacheManager do JCache é um só na JVM e os outros contextos de teste recriam o schema,
+        // então ids se repetem com entradas antigas nas regiões
+        entityManagerFactory.getCache().evictAll();
+
+        categoria = categoryRepository.save(new Category("Informática"));
+        notebook = productRepository.save(Product.builder().name("Notebook").price(new BigDecimal("3500.00")).category(categoria).build());
+        mouse = productRepository.save(Product.builder().name("Mouse").price(new BigDecimal("80.00")).category(categoria).build());
+
+        usuario = new User();
+        usuario.setName("Cliente Cache");
+        usuario.setEmail("cache@test.com");
+        usuario.setPassword("senha123");
+        usuario.addFavoriteProduct(notebook);
+        userRepository.save(usuario);
+    }
+
+    // O H2 não tem o ON DELETE CASCADE do MySQL na wishlist; limpar antes das outras classes de teste
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteAll();
+    }
+
+    private double hits(String region) {
+        var counter = meterRegistry.find("hibernate.second.level.cache.requests")
+                .tags("region", region, "result", "hit")
+                .functionCounter();
+        return counter == null ? 0 : counter.count();
+    }
+
+    // Teste 1: Categoria sai do cache na segunda leitura, sem SQL
+    @Test
+    void testRepeatCategoryReadsIssueNoSql() throws Exception {
+        categoryRepository.findById(categoria.getId()).orElseThrow();
+        var hitsAntes = hits("categories");
+
+        var lida = QueryBudget.atMost(0, () -> categoryRepository.findById(categoria.getId()).orElseThrow());
+
+        assertEquals("Informática", lida.getName());
+        assertTrue(hits("categories") > hitsAntes);
+    }
+
+    // Teste 2: findByCategoryId repetido vem do cache de consultas até a tabela mudar
+    @Test
+    void testCategoryQueryIsCachedUntilProductsChange() throws Exception {
+        assertEquals(2, productRepository.findByCategoryId(categoria.getId()).size());
+
+        List<Product> repetida = QueryBudget.atMost(0, () -> productRepository.findByCategoryId(categoria.getId()));
+        assertEquals(2, repetida.size());
+
+        productRepository.save(Product.builder().name("Teclado").price(new BigDecimal("150.00")).category(categoria).build());
+        assertEquals(3, productRepository.findByCategoryId(categoria.getId()).size());
+
+        productRepository.updateById(mouse.getId(), "Mouse sem fio", null, new BigDecimal("120.00"), categoria);
+        var nomes = productRepository.findByCategoryId(categoria.getId()).stream().map(Product::getName).toList();
+        assertTrue(nomes.contains("Mouse sem fio"));
+    }
+
+    // Teste 3: Escritas em lote de produtos e da wishlist não esvaziam o cache de categorias
+    @Test
+    void testProductAndWishlistWritesKeepCategoriesCached() throws Exception {
+        categoryRepository.findById(categoria.getId()).orElseThrow();
+
+        productRepository.updateById(mouse.getId(), "Mouse sem fio", null, new BigDecimal("120.00"), categoria);
+        wishlistService.add(usuario.getId(), mouse.getId());
+        wishlistService.remove(usuario.getId(), notebook.getId());
+        productRepository.removeById(notebook.getId());
+
+        var lida = QueryBudget.atMost(0, () -> categoryRepository.findById(categoria.getId()).orElseThrow());
+        assertEquals("Informática", lida.getName());
+    }
+}
@@ -4,8 +4,13 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.yuri.store.dtos.ChangePasswordRequest;
 import com.yuri.store.dtos.RegisterUserRequest;
 import com.yuri.store.dtos.UpdateUserRequest;
+import com.yuri.store.entities.Address;
+import com.yuri.store.entities.Product;
 import com.yuri.store.entities.User;
+import com.yuri.store.repositories.AddressRepository;
+import com.yuri.store.repositories.ProductRepository;
 import com.yuri.store.repositories.UserRepository;
+import com.yuri.store.sql.QueryBudget;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -13,16 +18,25 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @SpringBootTest
 @AutoConfigureMockMvc(addFilters = false)
 @ActiveProfiles("test")
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.yuri.store.sql.QueryBudget")
 public class UserControllerIntegrationTest {
 
     @Autowired
@@ -34,6 +48,12 @@ public class UserControllerIntegrationTest {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private AddressRepository addressRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
     private User testUser;
     private RegisterUserRequest registerRequest;
 
@@ -159,4 +179,325 @@ public class UserControllerIntegrationTest {
         mockMvc.perform(get("/users/{id}", userId))
                 .andExpect(status().isNotFound());
     }
+
+    // Teste 6: Cadastrar usuários em lote com uma linha inválida
+    @Test
+    void testCreateUsersInBatchReportsPerRowResults() throws Exception {
+        RegisterUserRequest semSenha = new RegisterUserRequest();
+        semSenha.setName("Pedro Lima");
+        semSenha.setEmail("pedro@test.com");
+
+        mockMvc.perform(post("/users/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(List.of(registerRequest, semSenha))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].status", equalTo(201)))
+                .andExpect(jsonPath("$[0].id", notNullValue()))
+                .andExpect(jsonPath("$[1].status", equalTo(400)));
+
+        assertEquals(2, userRepository.count());
+    }
+
+    // Teste 7: Atualizar usuários em lote via NDJSON mantendo campos ausentes
+    @Test
+    void testUpdateUsersInBatchFromNdjson() throws Exception {
+        String body = "{\"id\": " + testUser.getId() + ", \"name\": \"João Lote\"}\n"
+                + "{\"id\": 999999, \"name\": \"Ninguém\"}\n";
+
+        mockMvc.perform(patch("/users/batch")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status", equalTo(200)))
+                .andExpect(jsonPath("$[1].status", equalTo(404)));
+
+        mockMvc.perform(get("/users/{id}", testUser.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name", equalTo("João Lote")))
+                .andExpect(jsonPath("$.email", equalTo("joao@test.com")));
+    }
+
+    // Teste 8: GET condicional de usuário retorna 304 enquanto a versão não muda
+    @Test
+    void testConditionalGetUser() throws Exception {
+        mockMvc.perform(get("/users/{id}", testUser.getId())
+                .header("If-None-Match", "\"0\""))
+                .andExpect(status().isNotModified());
+
+        UpdateUserRequest updateRequest = new UpdateUserRequest();
+        updateRequest.setName("João Atualizado");
+        updateRequest.setEmail("joao.novo@test.com");
+
+        mockMvc.perform(put("/users/{id}", testUser.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(updateRequest)))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1\""));
+
+        mockMvc.perform(get("/users/{id}", testUser.getId())
+                .header("If-None-Match", "\"0\""))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name", equalTo("João Atualizado")));
+    }
+
+    // Teste 9: Atualizar usuário com If-Match desatualizado retorna 412
+    @Test
+    void testUpdateUserWithStaleIfMatchFails() throws Exception {
+        UpdateUserRequest updateRequest = new UpdateUserRequest();
+        updateRequest.setName("João Atualizado");
+        updateRequest.setEmail("joao.novo@test.com");
+
+        mockMvc.perform(put("/users/{id}", testUser.getId())
+                .header("If-Match", "\"0\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(updateRequest)))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1\""));
+
+        mockMvc.perform(put("/users/{id}", testUser.getId())
+                .header("If-Match", "\"0\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(registerRequest)))
+                .andExpect(status().isPreconditionFailed());
+
+        mockMvc.perform(put("/users/{id}", 999999)
+                .header("If-Match", "\"0\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(updateRequest)))
+                .andExpect(status().isNotFound());
+
+        mockMvc.perform(delete("/users/{id}", testUser.getId())
+                .header("If-Match", "\"0\""))
+                .andExpect(status().isPreconditionFailed());
+
+        mockMvc.perform(get("/users/{id}", testUser.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.email", equalTo("joao.novo@test.com")));
+    }
+
+    // Teste 10: Orçamento de consultas por endpoint com usuários que têm endereços
+    @Test
+    void testEndpointsStayWithinQueryBudget() throws Exception {
+        List<User> usuarios = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            User usuario = new User();
+            usuario.setName("Usuário " + i);
+            usuario.setEmail("usuario" + i + "@test.com");
+            usuario.setPassword("senha123");
+            usuario.addAddress(Address.builder().street("Rua " + i).city("São Paulo").zip("01000-000").state("SP").build());
+            usuarios.add(usuario);
+        }
+        userRepository.saveAll(usuarios);
+        var id = usuarios.get(0).getId();
+
+        UpdateUserRequest updateRequest = new UpdateUserRequest();
+        updateRequest.setName("Usuário Atualizado");
+        updateRequest.setEmail("atualizado@test.com");
+
+        ChangePasswordRequest changePasswordRequest = new ChangePasswordRequest();
+        changePasswordRequest.setOldPassword("senha123");
+        changePasswordRequest.setNewPassword("novaSenha");
+
+        // Emails nunca usados em outro teste: o filtro responde sem query
+        registerRequest.setEmail("orcamento@test.com");
+        RegisterUserRequest loteRequest = new RegisterUserRequest();
+        loteRequest.setName("Lote");
+        loteRequest.setEmail("orcamento.lote@test.com");
+        loteRequest.setPassword("senha789");
+
+        QueryBudget.atMost(1, () -> mockMvc.perform(get("/users")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(201)));
+        QueryBudget.atMost(1, () -> mockMvc.perform(get("/users/{id}", id)))
+                .andExpect(status().isOk());
+        QueryBudget.atMost(1, () -> mockMvc.perform(get("/users/{id}", id).header("If-None-Match", "\"0\"")))
+                .andExpect(status().isNotModified());
+        QueryBudget.atMost(2, () -> mockMvc.perform(post("/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(registerRequest))))
+                .andExpect(status().isCreated());
+        QueryBudget.atMost(2, () -> mockMvc.perform(put("/users/{id}", id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(updateRequest))))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1\""));
+        QueryBudget.atMost(1, () -> mockMvc.perform(put("/users/{id}", id)
+                        .header("If-Match", "\"1\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(updateRequest))))
+                .andExpect(status().isOk());
+        // Lê o hash atual e troca só se ele não mudou no meio tempo
+        QueryBudget.atMost(2, () -> mockMvc.perform(post("/users/{id}/change-password", id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(changePasswordRequest))))
+                .andExpect(status().isNoContent());
+        QueryBudget.atMost(2, () -> mockMvc.perform(post("/users/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(loteRequest)))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status", equalTo(201)));
+        QueryBudget.atMost(2, () -> mockMvc.perform(patch("/users/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"id\": " + id + ", \"name\": \"Lote\"}]")))
+                .andExpect(status().isOk());
+        // Um delete por tabela: endereços, perfil, wishlist e usuário
+        QueryBudget.atMost(4, () -> mockMvc.perform(delete("/users/{id}", id)))
+                .andExpect(status().isNoContent());
+    }
+
+    // Teste 11: Escritas sem carregar a entidade distinguem 404, 401 e 412 pela contagem de linhas
+    @Test
+    void testSetBasedWritesReportMissingRows() throws Exception {
+        Product produto = new Product();
+        produto.setName("Produto Favorito");
+        produto.setPrice(new BigDecimal("10.00"));
+        productRepository.save(produto);
+
+        User usuario = new User();
+        usuario.setName("Cliente Fiel");
+        usuario.setEmail("fiel@test.com");
+        usuario.setPassword("senha123");
+        usuario.addAddress(Address.builder().street("Rua A").city("São Paulo").zip("01000-000").state("SP").build());
+        usuario.addFavoriteProduct(produto);
+        userRepository.save(usuario);
+        long enderecosAntes = addressRepository.count();
+
+        ChangePasswordRequest changePasswordRequest = new ChangePasswordRequest();
+        changePasswordRequest.setOldPassword("senha123");
+        changePasswordRequest.setNewPassword("novaSenha");
+
+        mockMvc.perform(post("/users/{id}/change-password", 999999)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(changePasswordRequest)))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(put("/users/{id}", 999999)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(registerRequest)))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(delete("/users/{id}", 999999))
+                .andExpect(status().isNotFound());
+
+        // If-Match desatualizado não remove nada, nem os endereços
+        mockMvc.perform(delete("/users/{id}", usuario.getId())
+                .header("If-Match", "\"" + (usuario.getVersion() + 1) + "\""))
+                .andExpect(status().isPreconditionFailed());
+        assertEquals(enderecosAntes, addressRepository.count());
+
+        mockMvc.perform(delete("/users/{id}", usuario.getId())
+                .header("If-Match", "\"" + usuario.getVersion() + "\""))
+                .andExpect(status().isNoContent());
+        assertEquals(enderecosAntes - 1, addressRepository.count());
+        mockMvc.perform(get("/users/{id}", usuario.getId()))
+                .andExpect(status().isNotFound());
+
+        productRepository.delete(produto);
+    }
+
+    // Teste 12: Email já cadastrado responde 409, no cadastro e na atualização
+    @Test
+    void testDuplicateEmailIsRejected() throws Exception {
+        mockMvc.perform(post("/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(registerRequest)))
+                .andExpect(status().isCreated());
+        long usuariosAntes = userRepository.count();
+
+        // Mesmo email de novo: o filtro acusa e a query confirma
+        registerRequest.setName("Outra Maria");
+        mockMvc.perform(post("/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(registerRequest)))
+                .andExpect(status().isConflict());
+
+        // Email de outro usuário na atualização: o índice único barra
+        UpdateUserRequest updateRequest = new UpdateUserRequest();
+        updateRequest.setName("João Silva");
+        updateRequest.setEmail("maria@test.com");
+        mockMvc.perform(put("/users/{id}", testUser.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(updateRequest)))
+                .andExpect(status().isConflict());
+
+        assertEquals(usuariosAntes, userRepository.count());
+        mockMvc.perform(get("/users/{id}", testUser.getId()))
+                .andExpect(jsonPath("$.email", equalTo("joao@test.com")));
+    }
+
+    // Teste 13: Senhas são gravadas como hash e linhas antigas em texto puro migram na troca de senha
+    @Test
+    void testPasswordsAreHashedAndLegacyRowsMigrate() throws Exception {
+        MvcResult createResult = mockMvc.perform(post("/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(registerRequest)))
+                .andExpect(status().isCreated())
+                .andReturn();
+        Long mariaId = objectMapper.readTree(createResult.getResponse().getContentAsString()).get("id").asLong();
+        assertTrue(userRepository.findPasswordById(mariaId).orElseThrow().startsWith("{bcrypt}"));
+
+        // testUser foi gravado direto no repositório, com a senha em texto puro
+        assertEquals("senha123", userRepository.findPasswordById(testUser.getId()).orElseThrow());
+        ChangePasswordRequest changePasswordRequest = new ChangePasswordRequest();
+        changePasswordRequest.setOldPassword("senha123");
+        changePasswordRequest.setNewPassword("novaSenha999");
+        mockMvc.perform(post("/users/{id}/change-password", testUser.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(changePasswordRequest)))
+                .andExpect(status().isNoContent());
+
+        var migrada = userRepository.findPasswordById(testUser.getId()).orElseThrow();
+        assertTrue(migrada.startsWith("{bcrypt}"));
+        assertFalse(migrada.contains("novaSenha999"));
+
+        // A nova senha confere contra o hash
+        changePasswordRequest.setOldPassword("novaSenha999");
+        changePasswordRequest.setNewPassword("terceiraSenha");
+        mockMvc.perform(post("/users/{id}/change-password", testUser.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(changePasswordRequest)))
+                .andExpect(status().isNoContent());
+    }
+
+    // Teste 14: Emails repetidos no lote recebem 409 por linha sem desfazer o restante do chunk
+    @Test
+    void testBatchRejectsDuplicateEmailsPerRow() throws Exception {
+        mockMvc.perform(post("/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(registerRequest)))
+                .andExpect(status().isCreated());
+
+        RegisterUserRequest novo = new RegisterUserRequest();
+        novo.setName("Rita Nova");
+        novo.setEmail("rita@test.com");
+        novo.setPassword("senha123");
+        RegisterUserRequest repetidoNoLote = new RegisterUserRequest();
+        repetidoNoLote.setName("Rita Repetida");
+        repetidoNoLote.setEmail("RITA@test.com");
+        repetidoNoLote.setPassword("senha123");
+        RegisterUserRequest jaCadastrado = new RegisterUserRequest();
+        jaCadastrado.setName("Maria Duplicada");
+        jaCadastrado.setEmail(registerRequest.getEmail());
+        jaCadastrado.setPassword("senha123");
+
+        mockMvc.perform(post("/users/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(List.of(novo, repetidoNoLote, jaCadastrado))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status", equalTo(201)))
+                .andExpect(jsonPath("$[1].status", equalTo(409)))
+                .andExpect(jsonPath("$[2].status", equalTo(409)));
+        assertEquals(3, userRepository.count());
+
+        // Renomear para um email de outro usuário também é 409; manter o próprio email não é
+        String body = "{\"id\": " + testUser.getId() + ", \"email\": \"rita@test.com\"}\n"
+                + "{\"id\": " + testUser.getId() + ", \"email\": \"" + testUser.getEmail().toUpperCase() + "\", \"name\": \"João Mantido\"}\n";
+        mockMvc.perform(patch("/users/batch")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status", equalTo(409)))
+                .andExpect(jsonPath("$[1].status", equalTo(200)));
+        mockMvc.perform(get("/users/{id}", testUser.getId()))
+                .andExpect(jsonPath("$.name", equalTo("João Mantido")));
+    }
 }
@@ -0,0 +1,231 @@
+package com.yuri.store.controllers;
+
+import com.yuri.store.entities.Category;
+import com.yuri.store.entities.Product;
+import com.yuri.store.entities.User;
+import com.yuri.store.repositories.CategoryRepository;
+import com.yuri.store.repositories.ProductRepository;
+import com.yuri.store.repositories.UserRepository;
+import com.yuri.store.sql.QueryBudget;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.Matchers.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.yuri.store.sql.QueryBudget")
+public class WishlistControllerIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    private User testUser;
+    private List<Product> produtos;
+
+    @BeforeEach
+    void setUp() {
+        userRepository.deleteAll();
+        productRepository.deleteAll();
+        categoryRepository.deleteAll();
+
+        Category categoria = new Category("Livros");
+        categoryRepository.save(categoria);
+
+        produtos = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            produtos.add(Product.builder()
+                    .name("Livro " + i)
+                    .price(new BigDecimal("30.00"))
+                    .category(categoria)
+                    .build());
+        }
+        productRepository.saveAll(produtos);
+
+        testUser = new User();
+        testUser.setName("Ana Leitora");
+        testUser.setEmail("ana@test.com");
+        testUser.setPassword("senha123");
+        userRepository.save(testUser);
+    }
+
+    // O H2 não tem o ON DELETE CASCADE do MySQL na wishlist; limpar antes das outras classes de teste
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteAll();
+    }
+
+    // Teste 1: Adicionar e remover favoritos é idempotente
+    @Test
+    void testAddAndRemoveFavorites() throws Exception {
+        var produtoId = produtos.get(0).getId();
+
+        mockMvc.perform(put("/users/{userId}/wishlist/{productId}", testUser.getId(), produtoId))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(put("/users/{userId}/wishlist/{productId}", testUser.getId(), produtoId))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/users/{userId}/wishlist", testUser.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(1)))
+                .andExpect(jsonPath("$.items[0].id", equalTo(produtoId.intValue())))
+                .andExpect(jsonPath("$.items[0].category.name", equalTo("Livros")));
+
+        mockMvc.perform(delete("/users/{userId}/wishlist/{productId}", testUser.getId(), produtoId))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(delete("/users/{userId}/wishlist/{productId}", testUser.getId(), produtoId))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/users/{userId}/wishlist", testUser.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(0)));
+    }
+
+    // Teste 2: Usuário ou produto inexistente retorna 404
+    @Test
+    void testUnknownUserOrProductReturnsNotFound() throws Exception {
+        mockMvc.perform(put("/users/{userId}/wishlist/{productId}", testUser.getId(), 999999))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(put("/users/{userId}/wishlist/{productId}", 999999, produtos.get(0).getId()))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/users/{userId}/wishlist", 999999))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/users/{userId}/wishlist/contains", 999999).param("productId", "1"))
+                .andExpect(status().isNotFound());
+    }
+
+    // Teste 3: Verificar 50 produtos de uma listagem não consulta o banco depois do primeiro acesso
+    @Test
+    void testContainsIsServedFromMemory() throws Exception {
+        var favorito = produtos.get(10).getId();
+        var outro = produtos.get(11).getId();
+        mockMvc.perform(put("/users/{userId}/wishlist/{productId}", testUser.getId(), favorito))
+                .andExpect(status().isNoContent());
+
+        String[] ids = produtos.stream().map(p -> p.getId().toString()).toArray(String[]::new);
+        // A escrita descarta o bitmap em cache; o primeiro acesso recarrega do banco
+        mockMvc.perform(get("/users/{userId}/wishlist/contains", testUser.getId()).param("productId", ids))
+                .andExpect(status().isOk());
+        QueryBudget.atMost(0, () -> mockMvc.perform(get("/users/{userId}/wishlist/contains", testUser.getId())
+                        .param("productId", ids)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.*", hasSize(50)))
+                .andExpect(jsonPath("$['" + favorito + "']", equalTo(true)))
+                .andExpect(jsonPath("$['" + outro + "']", equalTo(false)));
+    }
+
+    // Teste 4: Paginação por cursor em ordem de id
+    @Test
+    void testWishlistPagination() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            mockMvc.perform(put("/users/{userId}/wishlist/{productId}", testUser.getId(), produtos.get(i).getId()))
+                    .andExpect(status().isNoContent());
+        }
+
+        String cursor = mockMvc.perform(get("/users/{userId}/wishlist", testUser.getId()).param("limit", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(3)))
+                .andExpect(jsonPath("$.items[0].id", equalTo(produtos.get(0).getId().intValue())))
+                .andExpect(jsonPath("$.nextCursor", notNullValue()))
+                .andReturn().getResponse().getContentAsString()
+                .replaceAll(".*\"nextCursor\":\"([^\"]+)\".*", "$1");
+
+        mockMvc.perform(get("/users/{userId}/wishlist", testUser.getId()).param("limit", "3").param("after", cursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(2)))
+                .andExpect(jsonPath("$.items[0].id", equalTo(produtos.get(3).getId().intValue())))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    // Teste 5: Produto excluído sai da wishlist em memória
+    @Test
+    void testDeletedProductLeavesWishlist() throws Exception {
+        var produtoId = produtos.get(0).getId();
+        mockMvc.perform(put("/users/{userId}/wishlist/{productId}", testUser.getId(), produtoId))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(get("/users/{userId}/wishlist/contains", testUser.getId()).param("productId", produtoId.toString()))
+                .andExpect(jsonPath("$['" + produtoId + "']", equalTo(true)));
+
+        // Faz no banco o que o ON DELETE CASCADE do MySQL faria; o bitmap em memória continua igual
+        userRepository.removeFavoriteProduct(testUser.getId(), produtoId);
+        mockMvc.perform(delete("/products/{id}", produtoId))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/users/{userId}/wishlist/contains", testUser.getId()).param("productId", produtoId.toString()))
+                .andExpect(jsonPath("$['" + produtoId + "']", equalTo(false)));
+    }
+
+    // Teste 6: Recomendações "quem favoritou também favoritou" sem SQL por requisição
+    @Test
+    void testRelatedProductsFollowWishlists() throws Exception {
+        User outro = new User();
+        outro.setName("Bruno Leitor");
+        outro.setEmail("bruno@test.com");
+        outro.setPassword("senha123");
+        userRepository.save(outro);
+
+        var livro = produtos.get(0).getId();
+        var maisComum = produtos.get(1).getId();
+        var menosComum = produtos.get(2).getId();
+        for (var usuario : List.of(testUser, outro)) {
+            mockMvc.perform(put("/users/{userId}/wishlist/{productId}", usuario.getId(), livro));
+            mockMvc.perform(put("/users/{userId}/wishlist/{productId}", usuario.getId(), maisComum));
+        }
+        mockMvc.perform(put("/users/{userId}/wishlist/{productId}", testUser.getId(), menosComum));
+
+        QueryBudget.atMost(0, () -> mockMvc.perform(get("/products/{id}/related", livro)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].id", equalTo(maisComum.intValue())))
+                .andExpect(jsonPath("$[0].score", equalTo(2.0)))
+                .andExpect(jsonPath("$[1].id", equalTo(menosComum.intValue())));
+
+        // Excluir o usuário tira as cestas dele da matriz
+        mockMvc.perform(delete("/users/{id}", outro.getId()))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(get("/products/{id}/related", livro))
+                .andExpect(jsonPath("$[0].score", equalTo(1.0)));
+    }
+
+    // Teste 7: Depois de uma escrita o bitmap é recarregado do banco, não remendado
+    @Test
+    void testWriteReloadsFavoritesFromDatabase() throws Exception {
+        var primeiro = produtos.get(0).getId();
+        var segundo = produtos.get(1).getId();
+        mockMvc.perform(put("/users/{userId}/wishlist/{productId}", testUser.getId(), primeiro))
+                .andExpect(status().isNoContent());
+
+        // Outra escrita concorrente já removeu a linha no banco sem passar pelo cache
+        userRepository.removeFavoriteProduct(testUser.getId(), primeiro);
+        mockMvc.perform(put("/users/{userId}/wishlist/{productId}", testUser.getId(), segundo))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/users/{userId}/wishlist/contains", testUser.getId())
+                        .param("productId", primeiro.toString(), segundo.toString()))
+                .andExpect(jsonPath("$['" + primeiro + "']", equalTo(false)))
+                .andExpect(jsonPath("$['" + segundo + "']", equalTo(true)));
+    }
+}